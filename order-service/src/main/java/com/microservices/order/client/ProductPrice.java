@@ -0,0 +1,20 @@
+package com.microservices.order.client;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Subset of product-service's v2 ProductResponse needed for pricing and order history
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPrice {
+
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Boolean active;
+    private Long version;
+}
@@ -0,0 +1,67 @@
+package com.microservices.order.client;
+
+import com.microservices.order.exception.ProductServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class ProductServiceClient {
+
+    // product-service rejects larger id lists on /api/v2/products/batch
+    static final int MAX_BATCH_IDS = 500;
+
+    private final RestClient restClient;
+
+    public ProductServiceClient(RestClient.Builder builder,
+                                @Value("${order.pricing.product-service-url:http://localhost:8081}") String baseUrl,
+                                @Value("${order.pricing.connect-timeout-ms:500}") long connectTimeoutMs,
+                                @Value("${order.pricing.read-timeout-ms:2000}") long readTimeoutMs) {
+        // One shared JDK client keeps connections to product-service alive between orders
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    // One call per MAX_BATCH_IDS ids. Only I/O errors and 5xx responses mean product-service is
+    // unavailable; a 4xx is a bad request from this side and is left to surface as such.
+    public List<ProductPrice> getProducts(Collection<Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+        List<ProductPrice> products = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_IDS) {
+            products.addAll(fetch(ids.subList(from, Math.min(ids.size(), from + MAX_BATCH_IDS))));
+        }
+        return products;
+    }
+
+    private List<ProductPrice> fetch(List<Long> productIds) {
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            List<ProductPrice> products = restClient.get()
+                    .uri("/api/v2/products/batch?ids={ids}", ids)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<ProductPrice>>() {});
+            return products != null ? products : List.of();
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            throw new ProductServiceUnavailableException("Product service is unavailable: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.microservices.order.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Component
+public class UserServiceClient {
+
+    private final RestClient restClient;
+
+    public UserServiceClient(RestClient.Builder builder,
+                             @Value("${order.enrichment.user-service-url:http://localhost:8082}") String baseUrl,
+                             @Value("${order.enrichment.connect-timeout-ms:500}") long connectTimeoutMs,
+                             @Value("${order.enrichment.read-timeout-ms:1000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    // Null when the user does not exist; any other failure is thrown as a RestClientException
+    public UserSummary getUser(Long userId) {
+        try {
+            return restClient.get()
+                    .uri("/api/v2/users/{id}", userId)
+                    .retrieve()
+                    .body(UserSummary.class);
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+}
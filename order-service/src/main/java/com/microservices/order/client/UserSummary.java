@@ -0,0 +1,18 @@
+package com.microservices.order.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Subset of user-service's v2 UserResponse needed for order history
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+
+    private Long id;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private Boolean active;
+}
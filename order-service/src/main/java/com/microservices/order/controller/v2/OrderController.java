@@ -1,18 +1,57 @@
 package com.microservices.order.controller.v2;
 
+import com.microservices.order.dto.v2.AnalyticsResponse;
+import com.microservices.order.dto.v2.AsyncOrderStatus;
+import com.microservices.order.dto.v2.BatchOrderResponse;
+import com.microservices.order.dto.v2.BulkStatusTransitionRequest;
+import com.microservices.order.dto.v2.BulkStatusTransitionResponse;
+import com.microservices.order.dto.v2.ConsumerOffset;
+import com.microservices.order.dto.v2.CursorPage;
+import com.microservices.order.dto.v2.IngestionMetrics;
+import com.microservices.order.dto.v2.OrderChangeFeed;
+import com.microservices.order.dto.v2.OrderEventResponse;
+import com.microservices.order.dto.v2.OrderHistoryResponse;
 import com.microservices.order.dto.v2.OrderRequest;
 import com.microservices.order.dto.v2.OrderResponse;
+import com.microservices.order.dto.v2.OrderSearchRequest;
+import com.microservices.order.dto.v2.OrderSearchResponse;
+import com.microservices.order.dto.v2.OrderStateResponse;
+import com.microservices.order.dto.v2.OutboxSinkStatus;
 import com.microservices.order.dto.v2.PagedResponse;
+import com.microservices.order.dto.v2.ProductUnitsSoldResponse;
+import com.microservices.order.dto.v2.RateLimitMetrics;
+import com.microservices.order.dto.v2.RollupRebuildResponse;
+import com.microservices.order.dto.v2.TrendingProductsResponse;
+import com.microservices.order.dto.v2.UserOrderSummaryResponse;
+import com.microservices.order.dto.v2.UserSummaryRebuildResponse;
+import com.microservices.order.service.OrderEventLogService;
+import com.microservices.order.service.OrderOutboxService;
+import com.microservices.order.service.OrderRateLimiter;
+import com.microservices.order.service.OrderRollupService;
+import com.microservices.order.service.OutboxRelay;
+import com.microservices.order.service.TrendingProductTracker;
+import com.microservices.order.service.UserOrderSummaryService;
+import com.microservices.order.service.v2.OrderBatchService;
+import com.microservices.order.service.v2.OrderHistoryService;
+import com.microservices.order.service.v2.OrderIngestionService;
 import com.microservices.order.service.v2.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController("orderControllerV2")
 @RequestMapping("/api/v2/orders")
@@ -21,21 +60,98 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIngestionService ingestionService;
+    private final OrderBatchService batchService;
+    private final OrderHistoryService historyService;
+    private final OrderRollupService rollupService;
+    private final OrderRateLimiter rateLimiter;
+    private final TrendingProductTracker trendingProductTracker;
+    private final UserOrderSummaryService userOrderSummaryService;
+    private final OrderOutboxService outboxService;
+    private final OutboxRelay outboxRelay;
+    private final OrderEventLogService eventLogService;
 
     @PostMapping
-    @Operation(summary = "Create a new order with notes support")
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request) {
-        OrderResponse response = orderService.createOrder(request);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    @Operation(summary = "Create a new order with notes support",
+            description = "Retries that send the same Idempotency-Key get the originally created order back "
+                    + "(with Idempotent-Replayed: true) instead of a duplicate")
+    public ResponseEntity<OrderResponse> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequest request) {
+        OrderService.CreatedOrder created = orderService.createOrder(request, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(created.replayed()))
+                .body(created.order());
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create many orders from a JSON array of order requests",
+            description = "Each order is validated and priced on its own and reported in results by its index; "
+                    + "valid orders are written in chunks of order.batch.chunk-size, one transaction per chunk")
+    public ResponseEntity<BatchOrderResponse> createOrders(HttpServletRequest request) throws IOException {
+        // Read straight from the request stream so the array is never bound as a whole
+        return ResponseEntity.ok(batchService.createOrders(request.getInputStream()));
+    }
+
+    @PostMapping("/async")
+    @Operation(summary = "Queue an order for asynchronous creation",
+            description = "Returns 202 with a tracking id right away; queued orders are written in batches. "
+                    + "Poll the Location URL for the outcome and the created order id")
+    public ResponseEntity<AsyncOrderStatus> submitOrder(@Valid @RequestBody OrderRequest request) {
+        AsyncOrderStatus status = ingestionService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v2/orders/async/" + status.getTrackingId()))
+                .body(status);
+    }
+
+    @GetMapping("/async/metrics")
+    @Operation(summary = "Get asynchronous ingestion metrics",
+            description = "Queue depth, batch sizes and commit latency of the ingestion writer")
+    public ResponseEntity<IngestionMetrics> getIngestionMetrics() {
+        return ResponseEntity.ok(ingestionService.getMetrics());
+    }
+
+    @GetMapping("/rate-limit/metrics")
+    @Operation(summary = "Get per-user order rate limit decisions",
+            description = "Orders over max-orders per user in the sliding window are rejected with 429 and Retry-After")
+    public ResponseEntity<RateLimitMetrics> getRateLimitMetrics() {
+        return ResponseEntity.ok(rateLimiter.getMetrics());
+    }
+
+    @GetMapping("/async/{trackingId}")
+    @Operation(summary = "Get the status of an asynchronously submitted order")
+    public ResponseEntity<AsyncOrderStatus> getAsyncOrderStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok(ingestionService.getStatus(trackingId));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get order by ID with full details")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
-        OrderResponse response = orderService.getOrderById(id);
+    @Operation(summary = "Get order by ID with full details",
+            description = "includeArchived also looks the order up in the archive of finished orders")
+    public ResponseEntity<OrderResponse> getOrderById(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        OrderResponse response = orderService.getOrderById(id, includeArchived);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/history")
+    @Operation(summary = "Get every change made to an order, oldest first",
+            description = "CREATED holds the whole order, later events only the fields they changed; "
+                    + "the history outlives the order itself")
+    public ResponseEntity<List<OrderEventResponse>> getOrderHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(eventLogService.getHistory(id));
+    }
+
+    @GetMapping("/{id}/as-of")
+    @Operation(summary = "Get an order as it was at a point in time",
+            description = "Rebuilt from the nearest earlier snapshot of the order plus the events after it; "
+                    + "at defaults to now and deleted tells whether the order had been deleted by then")
+    public ResponseEntity<OrderStateResponse> getOrderAsOf(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(eventLogService.getStateAsOf(id, at != null ? at : LocalDateTime.now()));
+    }
+
     @GetMapping
     @Operation(summary = "Get all orders with pagination and sorting")
     public ResponseEntity<PagedResponse<OrderResponse>> getAllOrders(
@@ -47,17 +163,162 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/search")
+    @Operation(summary = "Search orders by user, product, status, creation date and total price",
+            description = "All criteria are optional and combine with AND. includeCount=false skips the count "
+                    + "query and only reports hasNext")
+    public ResponseEntity<OrderSearchResponse> searchOrders(@Valid @RequestBody OrderSearchRequest request) {
+        return ResponseEntity.ok(orderService.searchOrders(request));
+    }
+
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Get all orders for a specific user")
-    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(@PathVariable Long userId) {
-        List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
+    @Operation(summary = "Get all orders for a specific user",
+            description = "includeArchived appends the user's archived orders")
+    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<OrderResponse> orders = orderService.getOrdersByUserId(userId, includeArchived);
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/user/{userId}/enriched")
+    @Operation(summary = "Get a user's orders with user and product details one page at a time, newest first",
+            description = "Pass nextCursor from the previous page as cursor. User and product lookups run in parallel "
+                    + "with per-call timeouts; when a service fails its details are left out, it is listed in "
+                    + "unavailable and partial is true")
+    public ResponseEntity<OrderHistoryResponse> getEnrichedOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(historyService.getEnrichedHistory(userId, cursor, size));
+    }
+
+    @GetMapping("/user/{userId}/summary")
+    @Operation(summary = "Get a user's order count, total spent and last order date",
+            description = "Includes archived orders; totalSpent leaves out cancelled orders. "
+                    + "Served from a per-user summary row kept in step with every order write")
+    public ResponseEntity<UserOrderSummaryResponse> getUserOrderSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(userOrderSummaryService.getSummary(userId));
+    }
+
+    @PostMapping("/user-summaries/rebuild")
+    @Operation(summary = "Rebuild every user order summary from all orders, including archived ones")
+    public ResponseEntity<UserSummaryRebuildResponse> rebuildUserOrderSummaries() {
+        return ResponseEntity.ok(userOrderSummaryService.rebuild());
+    }
+
+    @GetMapping("/user/{userId}/page")
+    @Operation(summary = "Get orders for a user one page at a time, newest first",
+            description = "Pass nextCursor from the previous page as cursor; includeCount adds the user's total order count")
+    public ResponseEntity<CursorPage<OrderResponse>> getOrdersByUserIdPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeCount) {
+        CursorPage<OrderResponse> response = orderService.getOrdersByUserIdPage(userId, cursor, size, includeCount);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/product/{productId}")
+    @Operation(summary = "Get every order containing a product one page at a time, newest first",
+            description = "Matches any line of the order, not just the first product; pass nextCursor from the "
+                    + "previous page as cursor; includeCount adds the number of orders with the product")
+    public ResponseEntity<CursorPage<OrderResponse>> getOrdersByProductIdPage(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeCount) {
+        return ResponseEntity.ok(orderService.getOrdersByProductIdPage(productId, cursor, size, includeCount));
+    }
+
+    @GetMapping("/product/{productId}/units-sold")
+    @Operation(summary = "Get the units of a product ordered, per order status",
+            description = "Summed by the database over the product's order lines; unitsSold leaves out cancelled "
+                    + "orders and includeArchived adds archived orders")
+    public ResponseEntity<ProductUnitsSoldResponse> getProductUnitsSold(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(orderService.getUnitsSold(productId, includeArchived));
+    }
+
+    @GetMapping("/status/{status}/page")
+    @Operation(summary = "Get orders in a status one page at a time, newest first",
+            description = "Pass nextCursor from the previous page as cursor; includeCount adds the total for the status")
+    public ResponseEntity<CursorPage<OrderResponse>> getOrdersByStatusPage(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeCount) {
+        CursorPage<OrderResponse> response = orderService.getOrdersByStatusPage(status, cursor, size, includeCount);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/status-counts")
+    @Operation(summary = "Get the number of orders per status",
+            description = "Served from in-memory counters that are reconciled with the database periodically")
+    public ResponseEntity<Map<String, Long>> getStatusCounts() {
+        return ResponseEntity.ok(orderService.getStatusCounts());
+    }
+
+    @GetMapping("/analytics")
+    @Operation(summary = "Get order revenue and volume for a date range",
+            description = "groupBy is day, status or product; from/to are inclusive order creation dates "
+                    + "(default: the last 30 days). Served from rollup tables, not the orders table")
+    public ResponseEntity<AnalyticsResponse> getAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy) {
+        return ResponseEntity.ok(rollupService.getAnalytics(from, to, groupBy));
+    }
+
+    @PostMapping("/analytics/rebuild")
+    @Operation(summary = "Rebuild the analytics rollups from all orders, including archived ones")
+    public ResponseEntity<RollupRebuildResponse> rebuildAnalytics() {
+        return ResponseEntity.ok(rollupService.rebuild());
+    }
+
+    @GetMapping("/trending")
+    @Operation(summary = "Get the most-ordered products by units over a recent window",
+            description = "window is 1m-24h (e.g. 15m, 1h, 1d); counts are approximate and may be high by up to "
+                    + "maxOverestimate. Served from in-memory sketches of orders created by this instance")
+    public ResponseEntity<TrendingProductsResponse> getTrendingProducts(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "20") int k) {
+        return ResponseEntity.ok(trendingProductTracker.getTrending(window, k));
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Read committed order changes after the consumer's acknowledged offset",
+            description = "Changes come oldest first; acknowledge nextOffset once they are processed. "
+                    + "after reads from another offset without moving the consumer")
+    public ResponseEntity<OrderChangeFeed> getOrderChanges(
+            @RequestParam String consumer,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(outboxService.readFeed(consumer, after, limit));
+    }
+
+    @PostMapping("/changes/{consumer}/ack")
+    @Operation(summary = "Acknowledge order changes up to and including an offset")
+    public ResponseEntity<ConsumerOffset> acknowledgeOrderChanges(
+            @PathVariable String consumer,
+            @RequestParam long offset) {
+        return ResponseEntity.ok(outboxService.acknowledge(consumer, offset));
+    }
+
+    @GetMapping("/changes/relay")
+    @Operation(summary = "Get the delivery position and failures of each outbox relay sink")
+    public ResponseEntity<List<OutboxSinkStatus>> getOutboxRelayStatus() {
+        return ResponseEntity.ok(outboxRelay.getStatus());
+    }
+
     @GetMapping("/status/{status}")
-    @Operation(summary = "Get orders by status")
-    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(@PathVariable String status) {
-        List<OrderResponse> orders = orderService.getOrdersByStatus(status);
+    @Operation(summary = "Get orders by status",
+            description = "includeArchived appends archived orders in the status")
+    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<OrderResponse> orders = orderService.getOrdersByStatus(status, includeArchived);
         return ResponseEntity.ok(orders);
     }
 
@@ -79,6 +340,16 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/status-transitions")
+    @Operation(summary = "Move many orders to a status in one call",
+            description = "Each order is moved only if the transition is allowed from its current status; "
+                    + "the response reports the outcome per order")
+    public ResponseEntity<BulkStatusTransitionResponse> transitionOrderStatuses(
+            @Valid @RequestBody BulkStatusTransitionRequest request) {
+        BulkStatusTransitionResponse response = orderService.transitionOrderStatuses(request);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete an order")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
@@ -22,7 +22,7 @@ public class OrderRequest {
     @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
 
-    @NotNull(message = "Total price is required")
+    // Ignored when server-side pricing is enabled (order.pricing.enabled)
     @DecimalMin(value = "0.0", inclusive = false, message = "Total price must be greater than 0")
     private BigDecimal totalPrice;
 
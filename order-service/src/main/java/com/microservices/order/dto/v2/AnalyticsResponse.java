@@ -0,0 +1,22 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private String groupBy;
+    private List<AnalyticsRow> rows;
+    private long totalOrders;
+    private long totalUnits;
+    private BigDecimal totalRevenue;
+}
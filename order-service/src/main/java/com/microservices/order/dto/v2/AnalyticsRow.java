@@ -0,0 +1,17 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRow {
+    private String key;
+    private long orders;
+    private long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,24 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncOrderStatus {
+
+    public enum State {
+        QUEUED, CREATED, FAILED
+    }
+
+    private String trackingId;
+    private State state;
+    private Long orderId;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
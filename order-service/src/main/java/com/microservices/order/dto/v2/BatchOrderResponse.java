@@ -0,0 +1,20 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResponse {
+    private int received;
+    private int created;
+    private int rejected;
+    private int failed;
+    // Set when the body turned out malformed after some orders were written; results cover the orders before that point
+    private String error;
+    private List<BatchOrderResult> results;
+}
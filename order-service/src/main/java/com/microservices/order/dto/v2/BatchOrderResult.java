@@ -0,0 +1,25 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResult {
+
+    public enum Outcome {
+        // REJECTED: the order itself is invalid, unpriceable or over the rate limit; FAILED: it could not be
+        // priced or written because product-service or the database failed, so it may be resubmitted
+        CREATED, REJECTED, FAILED
+    }
+
+    // Position of the order in the submitted array, from 0
+    private int index;
+    private Outcome outcome;
+    private Long orderId;
+    private List<String> errors;
+}
@@ -0,0 +1,21 @@
+package com.microservices.order.dto.v2;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusTransitionRequest {
+
+    @NotEmpty(message = "Order IDs are required")
+    @Size(max = 1000, message = "At most 1000 orders can be transitioned at once")
+    private List<@NotNull Long> orderIds;
+
+    @NotBlank(message = "Status is required")
+    private String status;
+}
@@ -0,0 +1,16 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusTransitionResponse {
+    private int requested;
+    private int transitioned;
+    private List<StatusTransitionResult> results;
+}
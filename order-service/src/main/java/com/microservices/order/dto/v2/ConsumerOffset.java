@@ -0,0 +1,14 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumerOffset {
+    private String consumer;
+    // Offset the consumer's next read continues after; an ack never moves it backwards
+    private long offset;
+}
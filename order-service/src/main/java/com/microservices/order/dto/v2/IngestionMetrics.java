@@ -0,0 +1,23 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionMetrics {
+    private int queueDepth;
+    private int queueCapacity;
+    private long accepted;
+    private long rejected;
+    private long created;
+    private long failed;
+    private long batches;
+    private int lastBatchSize;
+    private double averageBatchSize;
+    private long lastCommitLatencyMs;
+    private double averageCommitLatencyMs;
+    private long maxCommitLatencyMs;
+}
@@ -0,0 +1,22 @@
+package com.microservices.order.dto.v2;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChange {
+    // Position in the change feed; acknowledge it to move past this change
+    private long offset;
+    private String type;
+    private Long orderId;
+    private LocalDateTime occurredAt;
+    // {"type", "before", "after"}; before is null on CREATED, after is null on DELETED
+    @JsonRawValue
+    private String data;
+}
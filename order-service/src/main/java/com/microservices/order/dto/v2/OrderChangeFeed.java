@@ -0,0 +1,19 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangeFeed {
+    private String consumer;
+    // Offset the changes were read after: the consumer's acknowledged offset unless overridden
+    private long after;
+    private List<OrderChange> changes;
+    // Acknowledge this offset once the changes are processed; equals after when there were none
+    private long nextOffset;
+}
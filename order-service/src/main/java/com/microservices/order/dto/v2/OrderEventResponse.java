@@ -0,0 +1,20 @@
+package com.microservices.order.dto.v2;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventResponse {
+    private Long eventId;
+    private String type;
+    private LocalDateTime occurredAt;
+    // Fields the event set: the whole order on CREATED, only what changed afterwards
+    @JsonRawValue
+    private String changes;
+}
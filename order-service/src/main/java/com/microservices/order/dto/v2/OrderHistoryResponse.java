@@ -0,0 +1,26 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryResponse {
+    private Long userId;
+    // Null when the user does not exist or user-service is unavailable
+    private OrderHistoryUser user;
+    private List<OrderResponse> orders;
+    // Products referenced by the orders, keyed by id; products of an unavailable batch are absent
+    private Map<Long, OrderHistoryProduct> products;
+    // Services that failed or timed out (user-service, product-service); the rest of the page is still served
+    private List<String> unavailable;
+    private boolean partial;
+    private boolean hasNext;
+    // Pass as cursor to fetch the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,14 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryUser {
+    private Long id;
+    private String username;
+    private String fullName;
+}
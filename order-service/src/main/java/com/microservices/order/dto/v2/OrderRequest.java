@@ -1,7 +1,10 @@
 package com.microservices.order.dto.v2;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,14 +18,17 @@ public class OrderRequest {
     @NotNull(message = "User ID is required")
     private Long userId;
 
-    @NotNull(message = "Product ID is required")
+    // Single-product order; leave empty when lines are given
     private Long productId;
 
-    @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
 
-    @NotNull(message = "Total price is required")
+    @Valid
+    @Size(max = 100, message = "An order cannot have more than 100 lines")
+    private List<OrderLineRequest> lines;
+
+    // Ignored when server-side pricing is enabled (order.pricing.enabled)
     @DecimalMin(value = "0.0", inclusive = false, message = "Total price must be greater than 0")
     private BigDecimal totalPrice;
 
@@ -31,4 +37,13 @@ public class OrderRequest {
 
     @Size(max = 500, message = "Notes cannot exceed 500 characters")
     private String notes;
+
+    @JsonIgnore
+    @AssertTrue(message = "Give either lines or productId and quantity")
+    public boolean isProductOrLinesGiven() {
+        if (lines != null && !lines.isEmpty()) {
+            return productId == null && quantity == null;
+        }
+        return productId != null && quantity != null;
+    }
 }
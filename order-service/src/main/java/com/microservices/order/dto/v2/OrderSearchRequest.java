@@ -0,0 +1,47 @@
+package com.microservices.order.dto.v2;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Every criterion is optional and they combine with AND; ranges are inclusive
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchRequest {
+
+    private Long userId;
+
+    // Matches orders with a line for the product
+    private Long productId;
+
+    private String status;
+
+    private LocalDateTime createdFrom;
+
+    private LocalDateTime createdTo;
+
+    @DecimalMin(value = "0.0", message = "Minimum total price cannot be negative")
+    private BigDecimal minTotalPrice;
+
+    @DecimalMin(value = "0.0", message = "Maximum total price cannot be negative")
+    private BigDecimal maxTotalPrice;
+
+    @Min(value = 0, message = "Page number must be 0 or greater")
+    private int page = 0;
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 100, message = "Page size cannot exceed 100")
+    private int size = 20;
+
+    private String sortBy = "createdAt";
+
+    private String sortDirection = "desc";
+
+    // false skips the count query and only reports whether there is a next page
+    private boolean includeCount = true;
+}
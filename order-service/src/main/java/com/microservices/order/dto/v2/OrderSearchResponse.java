@@ -0,0 +1,18 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchResponse {
+    private List<OrderResponse> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long totalElements; // only when requested with includeCount=true
+}
@@ -0,0 +1,24 @@
+package com.microservices.order.dto.v2;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStateResponse {
+    private Long orderId;
+    private LocalDateTime asOf;
+    // The order had been deleted by then; state is its last state before the delete
+    private boolean deleted;
+    // Last event applied, and the snapshot replay started from (null when it started at CREATED)
+    private Long eventId;
+    private Long snapshotEventId;
+    private int replayedEvents;
+    @JsonRawValue
+    private String state;
+}
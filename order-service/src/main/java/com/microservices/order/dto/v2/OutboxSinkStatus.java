@@ -0,0 +1,19 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxSinkStatus {
+    private String sink;
+    private long offset;
+    private long published;
+    private long failures;
+    private String lastError;
+    private LocalDateTime lastErrorAt;
+}
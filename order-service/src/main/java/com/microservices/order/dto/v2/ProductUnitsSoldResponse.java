@@ -0,0 +1,20 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductUnitsSoldResponse {
+    private Long productId;
+    private boolean includeArchived;
+    // Orders with at least one line for the product, in any status
+    private long orderCount;
+    // Units on those lines, leaving out cancelled orders
+    private long unitsSold;
+    private Map<String, Long> unitsByStatus;
+}
@@ -0,0 +1,20 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitMetrics {
+    private boolean enabled;
+    private int maxOrders;
+    private long windowMs;
+    private long allowed;
+    private long rejected;
+    // Let through without counting because max-tracked-users was reached
+    private long untracked;
+    private int trackedUsers;
+    private long evictedUsers;
+}
@@ -0,0 +1,15 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResponse {
+    private int chunks;
+    private int dailyRows;
+    private int productRows;
+    private long elapsedMs;
+}
@@ -0,0 +1,20 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionResult {
+
+    public enum Outcome {
+        TRANSITIONED, CONFLICT, INVALID_TRANSITION, NOT_FOUND
+    }
+
+    private Long orderId;
+    private Outcome outcome;
+    private String previousStatus;
+    private String status;
+}
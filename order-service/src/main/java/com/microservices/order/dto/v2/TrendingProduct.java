@@ -0,0 +1,15 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingProduct {
+    private Long productId;
+    // Estimated units ordered in the window; may be high by up to maxOverestimate
+    private long units;
+    private long maxOverestimate;
+}
@@ -0,0 +1,18 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingProductsResponse {
+    private String window;
+    private int k;
+    private LocalDateTime generatedAt;
+    private List<TrendingProduct> products;
+}
@@ -0,0 +1,19 @@
+package com.microservices.order.dto.v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderSummaryResponse {
+    private Long userId;
+    private long orderCount;
+    private long cancelledCount;
+    private BigDecimal totalSpent;
+    private LocalDateTime lastOrderAt;
+}
@@ -0,0 +1,7 @@
+package com.microservices.order.exception;
+
+public class AsyncOrderNotFoundException extends RuntimeException {
+    public AsyncOrderNotFoundException(String trackingId) {
+        super("No async order submission with tracking id: " + trackingId);
+    }
+}
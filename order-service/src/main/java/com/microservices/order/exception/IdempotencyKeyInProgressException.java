@@ -0,0 +1,7 @@
+package com.microservices.order.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String key) {
+        super("A request with Idempotency-Key " + key + " is still in progress, please retry");
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.order.exception;
+
+public class IngestionQueueFullException extends RuntimeException {
+    public IngestionQueueFullException(int capacity) {
+        super("Order ingestion queue is full (" + capacity + " pending), please retry later");
+    }
+}
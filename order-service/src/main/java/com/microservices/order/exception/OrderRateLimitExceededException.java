@@ -0,0 +1,16 @@
+package com.microservices.order.exception;
+
+public class OrderRateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public OrderRateLimitExceededException(Long userId, int maxOrders, long windowMs, long retryAfterSeconds) {
+        super("User " + userId + " has placed more than " + maxOrders + " orders in the last "
+                + (windowMs / 1000) + " seconds, please retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.order.exception;
+
+public class OrderStatusConflictException extends RuntimeException {
+    public OrderStatusConflictException(Long id, String currentStatus, String requestedStatus) {
+        super("Order " + id + " cannot move from " + currentStatus + " to " + requestedStatus);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.order.exception;
+
+public class ProductServiceUnavailableException extends RuntimeException {
+    public ProductServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
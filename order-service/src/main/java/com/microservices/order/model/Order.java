@@ -2,15 +2,30 @@ package com.microservices.order.model;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Sort indexes (see OrderSortField)
+        @Index(name = "idx_orders_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_orders_updated_id", columnList = "updated_at, id"),
+        @Index(name = "idx_orders_total_price_id", columnList = "total_price, id"),
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        // Orders of a user, newest first (keyset pages in OrderService v2)
+        @Index(name = "idx_orders_user_created_id", columnList = "user_id, created_at DESC, id DESC"),
+        // Orders in a status, newest first (keyset pages in OrderService v2)
+        @Index(name = "idx_orders_status_created_id", columnList = "status, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,9 +58,12 @@ public class Order {
     @Column(nullable = false, length = 20)
     private String status; // PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
 
-    @Size(max = 200, message = "Shipping address cannot exceed 200 characters")
-    @Column(length = 200)
-    private String shippingAddress;
+    // Interned by ShippingAddressService; orders to the same address share one row
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "shipping_address_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ShippingAddress shippingAddress;
 
     @Size(max = 500, message = "Notes cannot exceed 500 characters")
     @Column(length = 500)
@@ -60,6 +78,21 @@ public class Order {
     @Version
     private Long version;
 
+    // Written in JDBC batches by OrderLineService and read-only here; lazily loaded in batches
+    // so a page of orders costs one extra query per 100 orders, not one per order
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @OrderBy("lineNumber")
+    @BatchSize(size = 100)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<OrderLine> lines = new ArrayList<>();
+
+    public String getShippingAddressText() {
+        return shippingAddress != null ? shippingAddress.getAddress() : null;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,44 @@
+package com.microservices.order.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Orders created on a day that are currently in a status; maintained by OrderRollupService
+@Entity
+@Table(name = "order_daily_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDailyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "bucket_date", nullable = false)
+        private LocalDate bucketDate;
+
+        @Column(nullable = false, length = 20)
+        private String status;
+    }
+}
@@ -0,0 +1,39 @@
+package com.microservices.order.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Append-only history of an order: CREATED carries the whole order, later events only the fields
+// they changed. Written by OrderEventLogService in the transaction of the change; never updated.
+@Entity
+@Table(name = "order_events", indexes = {
+        // Events of an order in order (history, replay from a snapshot)
+        @Index(name = "idx_order_events_order_id", columnList = "order_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, length = 20)
+    private String eventType;
+
+    // JSON object of the changed order fields
+    @Lob
+    @Column(nullable = false)
+    private String changes;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+}
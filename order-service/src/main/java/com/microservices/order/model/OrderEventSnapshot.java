@@ -0,0 +1,38 @@
+package com.microservices.order.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Whole order state after one of its events, so point-in-time reads replay from here rather than
+// from the order's first event
+@Entity
+@Table(name = "order_event_snapshots", indexes = {
+        @Index(name = "idx_order_event_snapshots_order_event", columnList = "order_id, event_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    // Last event folded into the state
+    @Column(nullable = false)
+    private Long eventId;
+
+    @Lob
+    @Column(nullable = false)
+    private String state;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,47 @@
+package com.microservices.order.model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One product of an order. Inserted in JDBC batches by OrderLineService; the order_id column is
+// not a foreign key so lines stay in place when their order moves to orders_archive.
+@Entity
+@Table(name = "order_lines", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_order_lines_order_line", columnNames = {"order_id", "line_number"})
+}, indexes = {
+        // Orders containing a product (v2 order search, orders by product newest first); quantity
+        // makes the units sold aggregate index-only on the line side
+        @Index(name = "idx_order_lines_product_order", columnList = "product_id, order_id DESC, quantity")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Integer lineNumber;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Null when server-side pricing is disabled
+    @Column(precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal lineTotal;
+}
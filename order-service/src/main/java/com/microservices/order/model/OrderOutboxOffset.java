@@ -0,0 +1,27 @@
+package com.microservices.order.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last order_outbox id acknowledged by a change feed consumer or delivered to a relay sink
+@Entity
+@Table(name = "order_outbox_offsets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderOutboxOffset {
+
+    @Id
+    @Column(length = 100)
+    private String consumer;
+
+    @Column(nullable = false)
+    private Long lastEventId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.microservices.order.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Order lines of a product in orders created on a day; maintained by OrderRollupService
+@Entity
+@Table(name = "order_product_rollups", indexes = {
+        @Index(name = "idx_order_product_rollups_product_date", columnList = "product_id, bucket_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderProductRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "bucket_date", nullable = false)
+        private LocalDate bucketDate;
+
+        @Column(name = "product_id", nullable = false)
+        private Long productId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.microservices.order.model;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Order lifecycle: PENDING -> CONFIRMED -> SHIPPED -> DELIVERED, cancellable until shipped
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == CANCELLED;
+            case CONFIRMED -> next == SHIPPED || next == CANCELLED;
+            case SHIPPED -> next == DELIVERED;
+            case DELIVERED, CANCELLED -> false;
+        };
+    }
+
+    // No way out: the order is finished and may be archived
+    public boolean isTerminal() {
+        return Arrays.stream(values()).noneMatch(this::canTransitionTo);
+    }
+
+    // Statuses an order may be in to move to the given status
+    public static Set<OrderStatus> sourcesOf(OrderStatus next) {
+        return Arrays.stream(values())
+                .filter(status -> status.canTransitionTo(next))
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(OrderStatus.class)));
+    }
+
+    public static OrderStatus parse(String value) {
+        try {
+            return OrderStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid order status: " + value
+                    + " (expected one of " + Arrays.toString(values()) + ")");
+        }
+    }
+}
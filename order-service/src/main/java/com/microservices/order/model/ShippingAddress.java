@@ -0,0 +1,39 @@
+package com.microservices.order.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+// One distinct shipping address text, shared by every order shipped there. Rows are interned by
+// ShippingAddressService under the SHA-256 of the text and never change afterwards.
+@Entity
+@Table(name = "shipping_addresses", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_shipping_addresses_hash", columnNames = "address_hash")
+})
+@Immutable
+// Addresses of a page of orders load in one query per 100 distinct addresses
+@BatchSize(size = 100)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShippingAddress {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Hex SHA-256 of address
+    @Column(nullable = false, length = 64)
+    private String addressHash;
+
+    @Column(nullable = false, length = 200)
+    private String address;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
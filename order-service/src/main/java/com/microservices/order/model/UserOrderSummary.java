@@ -0,0 +1,33 @@
+package com.microservices.order.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One row per user with orders, live and archived; maintained by UserOrderSummaryService
+@Entity
+@Table(name = "user_order_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderSummary {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Long cancelledCount;
+
+    // Total price of the orders that are not cancelled
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalSpent;
+
+    private LocalDateTime lastOrderAt;
+}
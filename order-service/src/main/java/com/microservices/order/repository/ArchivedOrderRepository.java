@@ -0,0 +1,22 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    List<ArchivedOrder> findByUserIdOrderByCreatedAtDescIdDesc(Long userId);
+
+    List<ArchivedOrder> findByStatusOrderByCreatedAtDescIdDesc(String status);
+
+    // Lines stay in order_lines when their order is archived (see OrderLine)
+    @Query("SELECT o.status, COUNT(DISTINCT o.id), SUM(l.quantity) FROM ArchivedOrder o JOIN OrderLine l ON l.orderId = o.id " +
+            "WHERE l.productId = :productId GROUP BY o.status")
+    List<Object[]> sumUnitsByStatusForProduct(@Param("productId") Long productId);
+}
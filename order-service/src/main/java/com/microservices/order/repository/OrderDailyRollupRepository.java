@@ -0,0 +1,22 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.model.OrderDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrderDailyRollupRepository extends JpaRepository<OrderDailyRollup, OrderDailyRollup.Key> {
+
+    @Query("SELECT r.id.bucketDate, SUM(r.orderCount), SUM(r.units), SUM(r.revenue) FROM OrderDailyRollup r " +
+            "WHERE r.id.bucketDate BETWEEN :from AND :to GROUP BY r.id.bucketDate ORDER BY r.id.bucketDate")
+    List<Object[]> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.status, SUM(r.orderCount), SUM(r.units), SUM(r.revenue) FROM OrderDailyRollup r " +
+            "WHERE r.id.bucketDate BETWEEN :from AND :to GROUP BY r.id.status ORDER BY r.id.status")
+    List<Object[]> sumByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
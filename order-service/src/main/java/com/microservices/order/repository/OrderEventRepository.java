@@ -0,0 +1,13 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.model.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    List<OrderEvent> findByOrderIdOrderByIdAsc(Long orderId);
+}
@@ -0,0 +1,9 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.model.OrderEventSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderEventSnapshotRepository extends JpaRepository<OrderEventSnapshot, Long> {
+}
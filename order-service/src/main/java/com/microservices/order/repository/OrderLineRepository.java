@@ -0,0 +1,13 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.model.OrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+
+    List<OrderLine> findByOrderIdOrderByLineNumber(Long orderId);
+}
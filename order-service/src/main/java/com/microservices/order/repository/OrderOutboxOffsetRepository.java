@@ -0,0 +1,9 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.model.OrderOutboxOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderOutboxOffsetRepository extends JpaRepository<OrderOutboxOffset, String> {
+}
@@ -0,0 +1,18 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.model.OrderProductRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrderProductRollupRepository extends JpaRepository<OrderProductRollup, OrderProductRollup.Key> {
+
+    @Query("SELECT r.id.productId, SUM(r.orderCount), SUM(r.units), SUM(r.revenue) FROM OrderProductRollup r " +
+            "WHERE r.id.bucketDate BETWEEN :from AND :to GROUP BY r.id.productId ORDER BY SUM(r.revenue) DESC, r.id.productId")
+    List<Object[]> sumByProduct(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,15 +1,20 @@
 package com.microservices.order.repository;
 
 import com.microservices.order.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     
     List<Order> findByUserId(Long userId);
     
@@ -19,4 +24,67 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC")
     List<Order> findRecentOrdersByUserId(@Param("userId") Long userId);
+
+    // Keyset pages over idx_orders_user_created_id
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByUserIdAfter(@Param("userId") Long userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    long countByUserId(Long userId);
+
+    // Keyset pages over idx_orders_status_created_id
+    @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByStatus(@Param("status") String status, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByStatusAfter(@Param("status") String status,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    long countByStatus(String status);
+
+    // Keyset pages over idx_order_lines_product_order: every order with a line for the product,
+    // newest first by id (ids are assigned in creation order)
+    @Query("SELECT DISTINCT o FROM Order o JOIN OrderLine l ON l.orderId = o.id " +
+            "WHERE l.productId = :productId ORDER BY o.id DESC")
+    List<Order> findFirstPageByProductId(@Param("productId") Long productId, Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o JOIN OrderLine l ON l.orderId = o.id " +
+            "WHERE l.productId = :productId AND l.orderId < :id ORDER BY o.id DESC")
+    List<Order> findPageByProductIdAfter(@Param("productId") Long productId,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    @Query("SELECT COUNT(DISTINCT o.id) FROM Order o JOIN OrderLine l ON l.orderId = o.id WHERE l.productId = :productId")
+    long countByProductId(@Param("productId") Long productId);
+
+    // Rows of (status, orders, units) for the product, summed by the database
+    @Query("SELECT o.status, COUNT(DISTINCT o.id), SUM(l.quantity) FROM Order o JOIN OrderLine l ON l.orderId = o.id " +
+            "WHERE l.productId = :productId GROUP BY o.status")
+    List<Object[]> sumUnitsByStatusForProduct(@Param("productId") Long productId);
+
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<String> findStatusById(@Param("id") Long id);
+
+    // Compare-and-set: 0 rows means the order is gone or no longer in the expected status
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :next, o.updatedAt = :updatedAt, o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expected") String expected,
+                            @Param("next") String next,
+                            @Param("updatedAt") LocalDateTime updatedAt);
 }
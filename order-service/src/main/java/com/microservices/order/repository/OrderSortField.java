@@ -0,0 +1,42 @@
+package com.microservices.order.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Sortable order properties; each one is backed by a (sort column, id) index on orders
+public enum OrderSortField {
+    ID("id"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt"),
+    TOTAL_PRICE("totalPrice"),
+    STATUS("status");
+
+    private final String property;
+
+    OrderSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort toSort(Sort.Direction direction) {
+        if (this == ID) {
+            return Sort.by(direction, property);
+        }
+        // id tie-breaker keeps pages stable and matches the index order
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    public static OrderSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equalsIgnoreCase(property.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort field: " + property
+                        + " (allowed: " + Arrays.stream(values()).map(OrderSortField::getProperty)
+                        .collect(Collectors.joining(", ")) + ")"));
+    }
+}
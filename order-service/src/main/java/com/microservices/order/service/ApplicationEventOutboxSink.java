@@ -0,0 +1,30 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.OrderChange;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Republishes committed changes as OrderChange application events for in-process @EventListeners
+@Component
+@ConditionalOnProperty(name = "order.outbox.sinks.events.enabled", havingValue = "true", matchIfMissing = true)
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String name() {
+        return "events";
+    }
+
+    @Override
+    public void publish(List<OrderChange> changes) {
+        changes.forEach(eventPublisher::publishEvent);
+    }
+}
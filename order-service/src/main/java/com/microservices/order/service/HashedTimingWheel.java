@@ -0,0 +1,121 @@
+package com.microservices.order.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+// Hashed timing wheel of one-shot timers keyed by id. A timer sits in the slot of its deadline tick
+// (tick mod wheel size) on an intrusive doubly-linked list, so schedule and cancel are O(1) however
+// many timers there are; advancing visits only the slots of the elapsed ticks. Deadlines already
+// passed go on a separate overdue list that the next advance drains first.
+// Not thread-safe; PendingOrderExpiryService guards it.
+final class HashedTimingWheel {
+
+    private final long tickMs;
+    private final long startMs;
+    private final int mask;
+    private final int overdueSlot;
+    // One list head per slot, plus the overdue list at index overdueSlot
+    private final Timer[] heads;
+    private final Map<Long, Timer> timers = new HashMap<>();
+    private long currentTick;
+
+    HashedTimingWheel(long tickMs, int wheelSize, long startMs) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMs = tickMs;
+        this.startMs = startMs;
+        this.mask = size - 1;
+        this.overdueSlot = size;
+        this.heads = new Timer[size + 1];
+    }
+
+    // Replaces any timer already scheduled for the id
+    void schedule(long id, long deadlineMs) {
+        cancel(id);
+        long deadlineTick = Math.floorDiv(deadlineMs - startMs + tickMs - 1, tickMs);
+        Timer timer = new Timer(id, deadlineTick);
+        link(timer, deadlineTick <= currentTick ? overdueSlot : (int) (deadlineTick & mask));
+        timers.put(id, timer);
+    }
+
+    boolean cancel(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    // Fires every timer whose deadline is at or before nowMs
+    void advance(long nowMs, LongConsumer expired) {
+        fireAll(overdueSlot, Long.MAX_VALUE, expired);
+        long targetTick = Math.floorDiv(nowMs - startMs, tickMs);
+        // After a stall longer than one revolution each slot only needs visiting once
+        long lastTick = Math.min(targetTick, currentTick + heads.length - 1);
+        for (long tick = currentTick + 1; tick <= lastTick; tick++) {
+            fireAll((int) (tick & mask), targetTick, expired);
+        }
+        currentTick = Math.max(currentTick, targetTick);
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    void clear() {
+        timers.clear();
+        for (int i = 0; i < heads.length; i++) {
+            heads[i] = null;
+        }
+    }
+
+    private void fireAll(int slot, long upToTick, LongConsumer expired) {
+        Timer timer = heads[slot];
+        while (timer != null) {
+            Timer next = timer.next;
+            // Timers from later revolutions share the slot and stay put
+            if (timer.deadlineTick <= upToTick) {
+                unlink(timer);
+                timers.remove(timer.id);
+                expired.accept(timer.id);
+            }
+            timer = next;
+        }
+    }
+
+    private void link(Timer timer, int slot) {
+        timer.slot = slot;
+        timer.next = heads[slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        heads[slot] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            heads[timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+    }
+
+    private static final class Timer {
+        private final long id;
+        private final long deadlineTick;
+        private int slot;
+        private Timer previous;
+        private Timer next;
+
+        private Timer(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.microservices.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.exception.IdempotencyKeyInProgressException;
+import com.microservices.order.exception.IdempotencyKeyMismatchException;
+import com.microservices.order.model.IdempotencyKey;
+import com.microservices.order.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Idempotency-Key dedupe for order creation. Keys live in idempotency_keys for the TTL and are
+// written in the same transaction as the order, so a key exists exactly when its order does.
+// Recently completed keys are also kept in memory for the hot retry window, and a duplicate
+// that arrives while the first request is still running waits for it instead of racing it.
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final String INSERT_KEY_SQL =
+            "INSERT INTO idempotency_keys (idempotency_key, request_hash, order_id, created_at, expires_at) "
+                    + "VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_EXPIRED_KEY_SQL =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND expires_at <= ?";
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long hotWindowMs;
+    private final long inFlightWaitMs;
+    private final Map<String, Completed> completed = new ConcurrentHashMap<>();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyKeyRepository keyRepository,
+                              JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${order.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${order.idempotency.hot-window-ms:600000}") long hotWindowMs,
+                              @Value("${order.idempotency.in-flight-wait-ms:5000}") long inFlightWaitMs) {
+        this.keyRepository = keyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.hotWindowMs = hotWindowMs;
+        this.inFlightWaitMs = inFlightWaitMs;
+    }
+
+    public String hash(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request for idempotency check", e);
+        }
+    }
+
+    // Runs create once per key; repeats of the key get replay(orderId) of the first result
+    public <T> Result<T> execute(String key, String requestHash, Supplier<T> create,
+                                 ToLongFunction<T> orderIdOf, LongFunction<T> replay) {
+        while (true) {
+            Long orderId = findCompleted(key, requestHash);
+            if (orderId != null) {
+                return new Result<>(replay.apply(orderId), true);
+            }
+
+            InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+            InFlight running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                checkSameRequest(key, running.requestHash(), requestHash);
+                Long awaited = await(key, running);
+                if (awaited != null) {
+                    return new Result<>(replay.apply(awaited), true);
+                }
+                // The first attempt failed; this one takes over the key
+                continue;
+            }
+
+            try {
+                // Completed between our lookup and the claim, or by another instance
+                orderId = findCompleted(key, requestHash);
+                if (orderId == null) {
+                    orderId = findStored(key, requestHash);
+                }
+                if (orderId != null) {
+                    mine.result().complete(orderId);
+                    return new Result<>(replay.apply(orderId), true);
+                }
+
+                T created;
+                try {
+                    created = create.get();
+                } catch (DuplicateKeyException e) {
+                    // Another instance committed the same key first
+                    orderId = findStored(key, requestHash);
+                    if (orderId == null) {
+                        throw e;
+                    }
+                    mine.result().complete(orderId);
+                    return new Result<>(replay.apply(orderId), true);
+                }
+                orderId = orderIdOf.applyAsLong(created);
+                completed.put(key, new Completed(requestHash, orderId, System.currentTimeMillis()));
+                mine.result().complete(orderId);
+                return new Result<>(created, false);
+            } catch (RuntimeException e) {
+                mine.result().completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    // Called inside the order's transaction so the key commits or rolls back with the order. An
+    // expired row for the key that the purge has not reached yet is replaced rather than colliding.
+    public void record(String key, String requestHash, Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, key, Timestamp.valueOf(now));
+        jdbcTemplate.update(INSERT_KEY_SQL, key, requestHash, orderId,
+                Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl)));
+    }
+
+    @Scheduled(initialDelayString = "${order.idempotency.purge-interval-ms:300000}",
+            fixedDelayString = "${order.idempotency.purge-interval-ms:300000}")
+    @Transactional
+    public void purgeExpired() {
+        long hotCutoff = System.currentTimeMillis() - hotWindowMs;
+        completed.values().removeIf(entry -> entry.completedAtMs() < hotCutoff);
+        keyRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private Long findCompleted(String key, String requestHash) {
+        Completed hit = completed.get(key);
+        if (hit == null || hit.completedAtMs() < System.currentTimeMillis() - hotWindowMs) {
+            return null;
+        }
+        checkSameRequest(key, hit.requestHash(), requestHash);
+        return hit.orderId();
+    }
+
+    private Long findStored(String key, String requestHash) {
+        Optional<IdempotencyKey> stored = keyRepository.findUnexpired(key, LocalDateTime.now());
+        if (stored.isEmpty()) {
+            return null;
+        }
+        checkSameRequest(key, stored.get().getRequestHash(), requestHash);
+        Long orderId = stored.get().getOrderId();
+        completed.put(key, new Completed(requestHash, orderId, System.currentTimeMillis()));
+        return orderId;
+    }
+
+    private Long await(String key, InFlight running) {
+        try {
+            return running.result().get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    private void checkSameRequest(String key, String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(key);
+        }
+    }
+
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    private record Completed(String requestHash, long orderId, long completedAtMs) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<Long> result) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.microservices.order.service;
+
+import com.microservices.order.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+// Moves finished (DELIVERED, CANCELLED) orders that have not changed for min-age-days from orders
+// to orders_archive, one chunk per transaction so the job never holds many locks or a long
+// transaction. Keeps the hot table, and every index on it, sized to the live working set.
+@Service
+public class OrderArchiveService {
+
+    private static final List<String> TERMINAL_STATUSES = Arrays.stream(OrderStatus.values())
+            .filter(OrderStatus::isTerminal)
+            .map(OrderStatus::name)
+            .toList();
+
+    private static final String COLUMNS = "id, user_id, product_id, quantity, total_price, status, "
+            + "shipping_address_id, notes, created_at, updated_at, version";
+    private static final String LOCK_CHUNK_SQL = "SELECT id FROM orders "
+            + "WHERE status IN (:statuses) AND updated_at < :cutoff ORDER BY id LIMIT :limit FOR UPDATE";
+    private static final String COPY_CHUNK_SQL = "INSERT INTO orders_archive (" + COLUMNS + ", archived_at) "
+            + "SELECT " + COLUMNS + ", :archivedAt FROM orders WHERE id IN (:ids)";
+    private static final String DELETE_CHUNK_SQL = "DELETE FROM orders WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderStatusCounters statusCounters;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int chunkSize;
+
+    public OrderArchiveService(NamedParameterJdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               OrderStatusCounters statusCounters,
+                               @Value("${order.archive.enabled:true}") boolean enabled,
+                               @Value("${order.archive.min-age-days:90}") long minAgeDays,
+                               @Value("${order.archive.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.statusCounters = statusCounters;
+        this.enabled = enabled;
+        this.minAge = Duration.ofDays(minAgeDays);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${order.archive.interval-ms:3600000}",
+            fixedDelayString = "${order.archive.interval-ms:3600000}")
+    public void archiveFinishedOrders() {
+        if (enabled) {
+            archiveFinishedBefore(LocalDateTime.now().minus(minAge));
+        }
+    }
+
+    // Returns the number of orders moved
+    public int archiveFinishedBefore(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            total += moved;
+        } while (moved == chunkSize);
+        if (total > 0) {
+            // Archived orders no longer count towards the live per-status counts
+            statusCounters.reconcile();
+        }
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_CHUNK_SQL, new MapSqlParameterSource()
+                .addValue("statuses", TERMINAL_STATUSES)
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", chunkSize), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(COPY_CHUNK_SQL, new MapSqlParameterSource()
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()))
+                .addValue("ids", ids));
+        jdbcTemplate.update(DELETE_CHUNK_SQL, new MapSqlParameterSource("ids", ids));
+        return ids.size();
+    }
+}
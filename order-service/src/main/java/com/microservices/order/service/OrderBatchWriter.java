@@ -0,0 +1,101 @@
+package com.microservices.order.service;
+
+import com.microservices.order.model.OrderStatus;
+import com.microservices.order.model.ShippingAddress;
+import com.microservices.order.service.OrderPricingService.PricedLine;
+import com.microservices.order.service.OrderPricingService.PricedOrder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Inserts many new PENDING orders as one JDBC batch, their lines as a second one, and publishes a
+// CREATED event per order. Callers price the orders first and provide the transaction.
+@Service
+@RequiredArgsConstructor
+public class OrderBatchWriter {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (user_id, product_id, quantity, total_price, status, shipping_address_id, notes, "
+                    + "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderLineService orderLineService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Returns the generated ids in the order of the given orders
+    public List<Long> insertAll(List<NewOrder> orders, LocalDateTime now) {
+        List<Long> ids = insertOrders(orders, now);
+        Map<Long, List<PricedLine>> lines = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            NewOrder order = orders.get(i);
+            lines.put(ids.get(i), order.priced().lines());
+            eventPublisher.publishEvent(OrderLifecycleEvent.created(new OrderSnapshot(
+                    ids.get(i), order.userId(), order.priced().productId(), order.priced().quantity(),
+                    order.priced().totalPrice(), OrderStatus.PENDING.name(),
+                    order.shippingAddress() != null ? order.shippingAddress().getAddress() : null, order.notes(), now, null)
+                    .withPricedLines(order.priced().lines())));
+        }
+        orderLineService.insertLines(lines);
+        return ids;
+    }
+
+    private List<Long> insertOrders(List<NewOrder> orders, LocalDateTime now) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ORDER_SQL, new String[] {"id"})) {
+                Timestamp timestamp = Timestamp.valueOf(now);
+                for (NewOrder order : orders) {
+                    statement.setLong(1, order.userId());
+                    statement.setLong(2, order.priced().productId());
+                    statement.setInt(3, order.priced().quantity());
+                    statement.setBigDecimal(4, order.priced().totalPrice());
+                    statement.setString(5, OrderStatus.PENDING.name());
+                    if (order.shippingAddress() == null) {
+                        statement.setNull(6, Types.BIGINT);
+                    } else {
+                        statement.setLong(6, order.shippingAddress().getId());
+                    }
+                    setNullableString(statement, 7, order.notes());
+                    statement.setTimestamp(8, timestamp);
+                    statement.setTimestamp(9, timestamp);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(orders.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != orders.size()) {
+                    throw new IllegalStateException("Expected " + orders.size() + " generated ids but got " + ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    // shippingAddress comes from ShippingAddressService, interned before the transaction
+    public record NewOrder(Long userId, ShippingAddress shippingAddress, String notes, PricedOrder priced) {
+    }
+}
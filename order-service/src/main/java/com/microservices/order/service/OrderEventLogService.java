@@ -0,0 +1,176 @@
+package com.microservices.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microservices.order.dto.v2.OrderEventResponse;
+import com.microservices.order.dto.v2.OrderStateResponse;
+import com.microservices.order.exception.OrderNotFoundException;
+import com.microservices.order.repository.OrderEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Event-sourced order history. Every order write appends one event in the publisher's transaction:
+// CREATED holds the whole order, UPDATED and STATUS_CHANGED only the fields that changed (including
+// shipping address and notes), DELETED nothing.
+// After every snapshot-every events of an order its whole state is stored as a snapshot, so the
+// state as of any time is the nearest earlier snapshot plus fewer than snapshot-every events.
+// Current state is still read from the orders table; this log only serves history and audits.
+@Service
+public class OrderEventLogService {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO order_events (order_id, event_type, changes, occurred_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO order_event_snapshots (order_id, event_id, state, occurred_at) VALUES (?, ?, ?, ?)";
+    private static final String SNAPSHOT_AS_OF_SQL = "SELECT event_id, state FROM order_event_snapshots "
+            + "WHERE order_id = ? AND occurred_at <= ? ORDER BY event_id DESC LIMIT 1";
+    private static final String EVENTS_AFTER_SQL = "SELECT id, event_type, changes FROM order_events "
+            + "WHERE order_id = ? AND id > ? AND occurred_at <= ? ORDER BY id";
+    private static final String EVENTS_SINCE_SNAPSHOT_SQL = "SELECT COUNT(*) FROM order_events WHERE order_id = ? "
+            + "AND id > COALESCE((SELECT MAX(event_id) FROM order_event_snapshots WHERE order_id = ?), 0)";
+    // Fields of OrderSnapshot that are identity rather than state
+    private static final String ID_FIELD = "id";
+    private static final String LINES_FIELD = "lines";
+
+    private final OrderEventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int snapshotEvery;
+
+    public OrderEventLogService(OrderEventRepository eventRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${order.event-log.snapshot-every:20}") int snapshotEvery) {
+        this.eventRepository = eventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+    }
+
+    // Runs synchronously in the publisher's transaction, so history commits with the change itself
+    @EventListener
+    public void onOrderChanged(OrderLifecycleEvent event) {
+        // At the column's precision, so replaying up to now includes the event just written
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        jdbcTemplate.update(INSERT_EVENT_SQL, event.orderId(), event.type().name(),
+                write(changesOf(event)), Timestamp.valueOf(now));
+        if (event.type() == OrderLifecycleEvent.Type.DELETED) {
+            return;
+        }
+        Long sinceSnapshot = jdbcTemplate.queryForObject(EVENTS_SINCE_SNAPSHOT_SQL, Long.class,
+                event.orderId(), event.orderId());
+        if (sinceSnapshot != null && sinceSnapshot >= snapshotEvery) {
+            // Replayed rather than taken from the event: status changes do not carry the lines
+            State state = replay(event.orderId(), now);
+            jdbcTemplate.update(INSERT_SNAPSHOT_SQL, event.orderId(), state.eventId, write(state.order),
+                    Timestamp.valueOf(now));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderEventResponse> getHistory(Long orderId) {
+        List<OrderEventResponse> events = eventRepository.findByOrderIdOrderByIdAsc(orderId).stream()
+                .map(event -> new OrderEventResponse(event.getId(), event.getEventType(), event.getOccurredAt(),
+                        event.getChanges()))
+                .toList();
+        if (events.isEmpty()) {
+            throw new OrderNotFoundException(orderId);
+        }
+        return events;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderStateResponse getStateAsOf(Long orderId, LocalDateTime asOf) {
+        State state = replay(orderId, asOf);
+        if (state.order == null) {
+            throw new OrderNotFoundException(orderId);
+        }
+        return new OrderStateResponse(orderId, asOf, state.deleted, state.eventId, state.snapshotEventId,
+                state.replayedEvents, write(state.order));
+    }
+
+    private State replay(Long orderId, LocalDateTime asOf) {
+        Timestamp at = Timestamp.valueOf(asOf);
+        State state = new State();
+        jdbcTemplate.query(SNAPSHOT_AS_OF_SQL, resultSet -> {
+            state.eventId = resultSet.getLong("event_id");
+            state.snapshotEventId = state.eventId;
+            state.order = (ObjectNode) read(resultSet.getString("state"));
+        }, orderId, at);
+        jdbcTemplate.query(EVENTS_AFTER_SQL, resultSet -> {
+            state.eventId = resultSet.getLong("id");
+            state.replayedEvents++;
+            if (OrderLifecycleEvent.Type.DELETED.name().equals(resultSet.getString("event_type"))) {
+                state.deleted = true;
+                return;
+            }
+            JsonNode changes = read(resultSet.getString("changes"));
+            if (state.order == null) {
+                state.order = objectMapper.createObjectNode().put(ID_FIELD, orderId);
+            }
+            state.order.setAll((ObjectNode) changes);
+        }, orderId, state.eventId != null ? state.eventId : 0L, at);
+        return state;
+    }
+
+    // The whole order on CREATED; afterwards the fields whose values differ from before
+    private ObjectNode changesOf(OrderLifecycleEvent event) {
+        if (event.after() == null) {
+            return objectMapper.createObjectNode();
+        }
+        ObjectNode after = objectMapper.valueToTree(event.after());
+        after.remove(ID_FIELD);
+        if (after.get(LINES_FIELD) == null || after.get(LINES_FIELD).isNull()) {
+            // Lines were not captured by this write, which means it did not change them
+            after.remove(LINES_FIELD);
+        }
+        if (event.before() == null) {
+            return after;
+        }
+        ObjectNode before = objectMapper.valueToTree(event.before());
+        Iterator<Map.Entry<String, JsonNode>> fields = after.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().equals(before.get(field.getKey()))) {
+                fields.remove();
+            }
+        }
+        return after;
+    }
+
+    private String write(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order event", e);
+        }
+    }
+
+    private JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read order event", e);
+        }
+    }
+
+    private static final class State {
+        private ObjectNode order;
+        private Long eventId;
+        private Long snapshotEventId;
+        private int replayedEvents;
+        private boolean deleted;
+    }
+}
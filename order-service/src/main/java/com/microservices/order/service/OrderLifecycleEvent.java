@@ -0,0 +1,30 @@
+package com.microservices.order.service;
+
+// Published by the v1 and v2 services on every order write; listeners that need committed
+// state use @TransactionalEventListener. before is null on CREATED, after is null on DELETED.
+public record OrderLifecycleEvent(Type type, OrderSnapshot before, OrderSnapshot after) {
+
+    public enum Type {
+        CREATED, UPDATED, STATUS_CHANGED, DELETED
+    }
+
+    public static OrderLifecycleEvent created(OrderSnapshot after) {
+        return new OrderLifecycleEvent(Type.CREATED, null, after);
+    }
+
+    public static OrderLifecycleEvent updated(OrderSnapshot before, OrderSnapshot after) {
+        return new OrderLifecycleEvent(Type.UPDATED, before, after);
+    }
+
+    public static OrderLifecycleEvent statusChanged(OrderSnapshot before, OrderSnapshot after) {
+        return new OrderLifecycleEvent(Type.STATUS_CHANGED, before, after);
+    }
+
+    public static OrderLifecycleEvent deleted(OrderSnapshot before) {
+        return new OrderLifecycleEvent(Type.DELETED, before, null);
+    }
+
+    public Long orderId() {
+        return after != null ? after.id() : before.id();
+    }
+}
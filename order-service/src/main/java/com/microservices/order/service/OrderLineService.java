@@ -0,0 +1,47 @@
+package com.microservices.order.service;
+
+import com.microservices.order.service.OrderPricingService.PricedLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Line item writes as JDBC batches: all lines of one order, or of a whole ingestion batch of
+// orders, go to the database in a single batched INSERT. Callers provide the transaction.
+@Service
+@RequiredArgsConstructor
+public class OrderLineService {
+
+    private static final String INSERT_LINE_SQL = "INSERT INTO order_lines "
+            + "(order_id, line_number, product_id, quantity, unit_price, line_total) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_LINES_SQL = "DELETE FROM order_lines WHERE order_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertLines(Long orderId, List<PricedLine> lines) {
+        insertLines(Map.of(orderId, lines));
+    }
+
+    public void insertLines(Map<Long, List<PricedLine>> linesByOrderId) {
+        List<Object[]> rows = new ArrayList<>();
+        linesByOrderId.forEach((orderId, lines) -> {
+            for (int i = 0; i < lines.size(); i++) {
+                PricedLine line = lines.get(i);
+                rows.add(new Object[] {orderId, i + 1, line.productId(), line.quantity(), line.unitPrice(), line.lineTotal()});
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, rows);
+    }
+
+    public void replaceLines(Long orderId, List<PricedLine> lines) {
+        deleteLines(orderId);
+        insertLines(orderId, lines);
+    }
+
+    public void deleteLines(Long orderId) {
+        jdbcTemplate.update(DELETE_LINES_SQL, orderId);
+    }
+}
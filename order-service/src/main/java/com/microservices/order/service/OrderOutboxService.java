@@ -0,0 +1,152 @@
+package com.microservices.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.dto.v2.ConsumerOffset;
+import com.microservices.order.dto.v2.OrderChange;
+import com.microservices.order.dto.v2.OrderChangeFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Transactional outbox of order changes. Every lifecycle event is inserted into order_outbox inside
+// the writing transaction, so a change is in the outbox exactly when the order write committed.
+// Readers page by id and keep their position in order_outbox_offsets. Ids are handed out at insert
+// but rows become visible at commit, so a slow transaction can commit below an id a reader would
+// otherwise pass. A read therefore stops at the first id gap until the row after it is
+// gap-timeout-ms old; after that the gap is taken to be a rolled-back insert and skipped. Only a
+// change whose transaction stays open longer than gap-timeout-ms after its insert can be missed.
+@Service
+public class OrderOutboxService {
+
+    private static final Pattern CONSUMER_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,100}");
+    private static final int MAX_FEED_LIMIT = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_outbox (event_type, order_id, payload, created_at) VALUES (?, ?, ?, ?)";
+    private static final String READ_SQL = "SELECT id, event_type, order_id, payload, created_at FROM order_outbox "
+            + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String OFFSET_SQL = "SELECT last_event_id FROM order_outbox_offsets WHERE consumer = ?";
+    // Offsets only move forward, so a late or repeated ack cannot rewind a consumer
+    private static final String COMMIT_SQL = "MERGE INTO order_outbox_offsets t "
+            + "USING (VALUES (CAST(? AS VARCHAR(100)), CAST(? AS BIGINT), CAST(? AS TIMESTAMP))) "
+            + "AS s (consumer, last_event_id, updated_at) ON t.consumer = s.consumer "
+            + "WHEN MATCHED AND s.last_event_id > t.last_event_id THEN UPDATE SET "
+            + "t.last_event_id = s.last_event_id, t.updated_at = s.updated_at "
+            + "WHEN NOT MATCHED THEN INSERT (consumer, last_event_id, updated_at) "
+            + "VALUES (s.consumer, s.last_event_id, s.updated_at)";
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM order_outbox";
+    private static final String PURGE_SQL = "DELETE FROM order_outbox WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long gapTimeoutMs;
+    private final long retentionHours;
+
+    public OrderOutboxService(JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${order.outbox.gap-timeout-ms:5000}") long gapTimeoutMs,
+                              @Value("${order.outbox.retention-hours:168}") long retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionHours = retentionHours;
+    }
+
+    // Runs synchronously in the publisher's transaction: a failed insert rolls the order write back
+    @EventListener
+    public void onOrderChanged(OrderLifecycleEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.type().name());
+        payload.put("before", event.before());
+        payload.put("after", event.after());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order change for the outbox", e);
+        }
+        jdbcTemplate.update(INSERT_SQL, event.type().name(), event.orderId(), json, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // after overrides the consumer's acknowledged offset, e.g. to replay; it is not stored
+    public OrderChangeFeed readFeed(String consumer, Long after, int limit) {
+        validateConsumer(consumer);
+        if (limit < 1 || limit > MAX_FEED_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_FEED_LIMIT);
+        }
+        if (after != null && after < 0) {
+            throw new IllegalArgumentException("after must not be negative");
+        }
+        long offset = after != null ? after : committedOffset(consumer);
+        List<OrderChange> changes = readAfter(offset, limit);
+        long nextOffset = changes.isEmpty() ? offset : changes.get(changes.size() - 1).getOffset();
+        return new OrderChangeFeed(consumer, offset, changes, nextOffset);
+    }
+
+    public ConsumerOffset acknowledge(String consumer, long offset) {
+        validateConsumer(consumer);
+        if (offset < 0 || offset > latestOffset()) {
+            throw new IllegalArgumentException("offset must be between 0 and the latest change offset");
+        }
+        commit(consumer, offset);
+        return new ConsumerOffset(consumer, committedOffset(consumer));
+    }
+
+    // Changes after the offset, oldest first, up to the first id gap that may still be filled
+    public List<OrderChange> readAfter(long offset, int limit) {
+        List<OrderChange> changes = jdbcTemplate.query(READ_SQL, (resultSet, rowNum) -> new OrderChange(
+                resultSet.getLong("id"),
+                resultSet.getString("event_type"),
+                resultSet.getLong("order_id"),
+                resultSet.getTimestamp("created_at").toLocalDateTime(),
+                resultSet.getString("payload")), offset, limit);
+        // An insert holding a missing id started before the row after the gap, so once that row is
+        // gap-timeout-ms old the missing insert has either rolled back or been open at least as long
+        LocalDateTime settledBefore = LocalDateTime.now().minusNanos(gapTimeoutMs * 1_000_000);
+        long expected = offset + 1;
+        for (int i = 0; i < changes.size(); i++) {
+            OrderChange change = changes.get(i);
+            if (change.getOffset() != expected && change.getOccurredAt().isAfter(settledBefore)) {
+                return changes.subList(0, i);
+            }
+            expected = change.getOffset() + 1;
+        }
+        return changes;
+    }
+
+    public long committedOffset(String consumer) {
+        List<Long> offsets = jdbcTemplate.queryForList(OFFSET_SQL, Long.class, consumer);
+        return offsets.isEmpty() ? 0 : offsets.get(0);
+    }
+
+    public void commit(String consumer, long offset) {
+        jdbcTemplate.update(COMMIT_SQL, consumer, offset, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public long latestOffset() {
+        Long latest = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+        return latest != null ? latest : 0;
+    }
+
+    private static void validateConsumer(String consumer) {
+        if (consumer == null || !CONSUMER_PATTERN.matcher(consumer).matches()) {
+            throw new IllegalArgumentException("consumer must be 1-100 letters, digits, '.', '_' or '-'");
+        }
+    }
+
+    // Changes are kept for retention-hours whether or not every consumer has read them
+    @Scheduled(cron = "${order.outbox.purge-cron:0 15 4 * * *}")
+    public int purgeExpired() {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+    }
+}
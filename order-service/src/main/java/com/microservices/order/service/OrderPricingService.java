@@ -0,0 +1,156 @@
+package com.microservices.order.service;
+
+import com.microservices.order.client.ProductPrice;
+import com.microservices.order.client.ProductServiceClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Prices orders from product-service unit prices, cached for a short TTL. Cache misses of one
+// order are fetched with a single batch call, and a cached price is never replaced by one with
+// an older product version, so a slow response cannot roll back a newer price.
+@Service
+public class OrderPricingService {
+
+    private final ProductServiceClient productServiceClient;
+    private final boolean enabled;
+    private final long cacheTtlNanos;
+    private final int cacheMaxEntries;
+    private final Map<Long, CachedPrice> prices = new ConcurrentHashMap<>();
+
+    public OrderPricingService(ProductServiceClient productServiceClient,
+                               @Value("${order.pricing.enabled:true}") boolean enabled,
+                               @Value("${order.pricing.cache-ttl-ms:30000}") long cacheTtlMs,
+                               @Value("${order.pricing.cache-max-entries:10000}") int cacheMaxEntries) {
+        this.productServiceClient = productServiceClient;
+        this.enabled = enabled;
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMs);
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    // Server-side line and order totals from one price lookup for all lines; the client-supplied
+    // total is only used when pricing is disabled, and then lines carry no unit prices
+    public PricedOrder priceLines(List<LineItem> items, BigDecimal clientTotalPrice) {
+        if (!enabled) {
+            if (clientTotalPrice == null) {
+                throw new IllegalArgumentException("Total price is required");
+            }
+            // A single line is worth the whole client total; lines of a larger order stay unpriced
+            BigDecimal singleLineTotal = items.size() == 1 ? clientTotalPrice : null;
+            List<PricedLine> lines = items.stream()
+                    .map(item -> new PricedLine(item.productId(), item.quantity(), null, singleLineTotal))
+                    .toList();
+            return new PricedOrder(clientTotalPrice, lines);
+        }
+        Map<Long, BigDecimal> unitPrices = unitPrices(items.stream().map(LineItem::productId).toList());
+        List<PricedLine> lines = new ArrayList<>(items.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (LineItem item : items) {
+            BigDecimal unitPrice = unitPrices.get(item.productId());
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(item.quantity())).setScale(2, RoundingMode.HALF_UP);
+            lines.add(new PricedLine(item.productId(), item.quantity(), unitPrice, lineTotal));
+            total = total.add(lineTotal);
+        }
+        return new PricedOrder(total, lines);
+    }
+
+    // Warms the cache for many orders with one batch call; unknown products fail later in priceLines
+    public void prefetch(Collection<Long> productIds) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            unitPrices(productIds);
+        } catch (IllegalArgumentException e) {
+            // The known products were cached before the exception
+        }
+    }
+
+    public Map<Long, BigDecimal> unitPrices(Collection<Long> productIds) {
+        long now = System.nanoTime();
+        Map<Long, BigDecimal> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long productId : productIds) {
+            CachedPrice cached = prices.get(productId);
+            if (cached != null && now - cached.expiresAt() < 0) {
+                result.put(productId, cached.price());
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<ProductPrice> fetched = productServiceClient.getProducts(missing);
+        long expiresAt = System.nanoTime() + cacheTtlNanos;
+        for (ProductPrice product : fetched) {
+            if (!missing.contains(product.getId()) || product.getPrice() == null
+                    || Boolean.FALSE.equals(product.getActive())) {
+                prices.remove(product.getId());
+                continue;
+            }
+            CachedPrice stored = prices.merge(product.getId(),
+                    new CachedPrice(product.getPrice(), product.getVersion() != null ? product.getVersion() : -1L, expiresAt),
+                    OrderPricingService::newer);
+            result.put(product.getId(), stored.price());
+        }
+        for (Long productId : missing) {
+            if (!result.containsKey(productId)) {
+                throw new IllegalArgumentException("Unknown or inactive product: " + productId);
+            }
+        }
+        evictExpired();
+        return result;
+    }
+
+    private static CachedPrice newer(CachedPrice existing, CachedPrice fetched) {
+        if (fetched.version() >= existing.version()) {
+            return fetched;
+        }
+        return new CachedPrice(existing.price(), existing.version(), fetched.expiresAt());
+    }
+
+    private void evictExpired() {
+        if (prices.size() <= cacheMaxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        prices.values().removeIf(cached -> now - cached.expiresAt() >= 0);
+        if (prices.size() > cacheMaxEntries) {
+            prices.clear();
+        }
+    }
+
+    public record LineItem(Long productId, Integer quantity) {
+    }
+
+    public record PricedLine(Long productId, Integer quantity, BigDecimal unitPrice, BigDecimal lineTotal) {
+    }
+
+    public record PricedOrder(BigDecimal totalPrice, List<PricedLine> lines) {
+
+        // Order-level product and quantity for single-product readers: first line's product, total units
+        public Long productId() {
+            return lines.get(0).productId();
+        }
+
+        public int quantity() {
+            return lines.stream().mapToInt(PricedLine::quantity).sum();
+        }
+    }
+
+    private record CachedPrice(BigDecimal price, long version, long expiresAt) {
+    }
+}
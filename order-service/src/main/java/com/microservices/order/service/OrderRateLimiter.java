@@ -0,0 +1,168 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.RateLimitMetrics;
+import com.microservices.order.exception.OrderRateLimitExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-user order velocity limit over a sliding window, checked before pricing or any transaction
+// starts. The window is split into sub-buckets; each packs its bucket number and count into one
+// long updated by CAS, so admission is lock-free and the window slides a bucket at a time.
+// Users idle for a whole window are evicted, and past max-tracked-users new users are let
+// through untracked rather than growing the map.
+@Component
+public class OrderRateLimiter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final boolean enabled;
+    private final int maxOrders;
+    private final long windowMs;
+    private final int buckets;
+    private final long bucketMs;
+    private final int maxTrackedUsers;
+    // Bucket numbers count from here so they fit next to the count in one long
+    private final long startMs = System.currentTimeMillis();
+    private final Map<Long, UserWindow> windows = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public OrderRateLimiter(@Value("${order.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${order.rate-limit.max-orders:20}") int maxOrders,
+                            @Value("${order.rate-limit.window-ms:60000}") long windowMs,
+                            @Value("${order.rate-limit.buckets:10}") int buckets,
+                            @Value("${order.rate-limit.max-tracked-users:100000}") int maxTrackedUsers) {
+        this.enabled = enabled;
+        this.maxOrders = maxOrders;
+        this.windowMs = windowMs;
+        this.buckets = buckets;
+        this.bucketMs = Math.max(1, windowMs / buckets);
+        this.maxTrackedUsers = maxTrackedUsers;
+    }
+
+    // Counts one order for the user, or throws when the user is over the limit
+    public void acquire(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        long bucket = currentBucket();
+        UserWindow window = windows.get(userId);
+        if (window == null) {
+            if (windows.size() >= maxTrackedUsers) {
+                untracked.increment();
+                return;
+            }
+            window = windows.computeIfAbsent(userId, id -> new UserWindow(buckets));
+        }
+        if (!window.tryAcquire(bucket, maxOrders)) {
+            rejected.increment();
+            long retryAfterMs = startMs + (window.oldestBucket(bucket) + buckets) * bucketMs - System.currentTimeMillis();
+            throw new OrderRateLimitExceededException(userId, maxOrders, windowMs, Math.max(1, (retryAfterMs + 999) / 1000));
+        }
+        allowed.increment();
+    }
+
+    // Gives back an order counted by acquire that was then not taken. Only the current bucket is
+    // refunded: if it rolled over since acquire the order stays counted, erring towards the limit.
+    public void release(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        UserWindow window = windows.get(userId);
+        if (window != null && window.release(currentBucket())) {
+            allowed.decrement();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${order.rate-limit.window-ms:60000}",
+            fixedDelayString = "${order.rate-limit.window-ms:60000}")
+    public void evictIdle() {
+        long bucket = currentBucket();
+        windows.entrySet().removeIf(entry -> {
+            // Every count of an idle user has left the window, so dropping it loses nothing
+            boolean idle = entry.getValue().count(bucket) == 0;
+            if (idle) {
+                evicted.increment();
+            }
+            return idle;
+        });
+    }
+
+    public void clear() {
+        windows.clear();
+    }
+
+    public RateLimitMetrics getMetrics() {
+        return new RateLimitMetrics(enabled, maxOrders, windowMs, allowed.sum(), rejected.sum(), untracked.sum(),
+                windows.size(), evicted.sum());
+    }
+
+    private long currentBucket() {
+        return (System.currentTimeMillis() - startMs) / bucketMs;
+    }
+
+    private static long pack(long bucket, long count) {
+        return (bucket << COUNT_BITS) | count;
+    }
+
+    private static final class UserWindow {
+        // Slot i holds (bucket << COUNT_BITS | count) for the latest bucket b with b % size == i
+        private final AtomicLongArray slots;
+
+        private UserWindow(int buckets) {
+            this.slots = new AtomicLongArray(buckets);
+        }
+
+        // Adds first and backs out when over the limit, so racing requests never overshoot it
+        private boolean tryAcquire(long bucket, int maxOrders) {
+            int slot = (int) (bucket % slots.length());
+            slots.getAndUpdate(slot, value -> (value >>> COUNT_BITS) == bucket ? value + 1 : pack(bucket, 1));
+            if (count(bucket) <= maxOrders) {
+                return true;
+            }
+            slots.getAndUpdate(slot, value -> (value >>> COUNT_BITS) == bucket ? value - 1 : value);
+            return false;
+        }
+
+        private boolean release(long bucket) {
+            int slot = (int) (bucket % slots.length());
+            long previous = slots.getAndUpdate(slot,
+                    value -> (value >>> COUNT_BITS) == bucket && (value & COUNT_MASK) > 0 ? value - 1 : value);
+            return (previous >>> COUNT_BITS) == bucket && (previous & COUNT_MASK) > 0;
+        }
+
+        private long count(long bucket) {
+            long total = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                long value = slots.get(i);
+                if (bucket - (value >>> COUNT_BITS) < slots.length()) {
+                    total += value & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+
+        // Oldest bucket in the window that still holds orders
+        private long oldestBucket(long bucket) {
+            long oldest = bucket;
+            for (int i = 0; i < slots.length(); i++) {
+                long value = slots.get(i);
+                long slotBucket = value >>> COUNT_BITS;
+                if (bucket - slotBucket < slots.length() && (value & COUNT_MASK) > 0) {
+                    oldest = Math.min(oldest, slotBucket);
+                }
+            }
+            return oldest;
+        }
+    }
+}
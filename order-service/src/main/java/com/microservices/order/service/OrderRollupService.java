@@ -0,0 +1,326 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.AnalyticsResponse;
+import com.microservices.order.dto.v2.AnalyticsRow;
+import com.microservices.order.dto.v2.RollupRebuildResponse;
+import com.microservices.order.repository.OrderDailyRollupRepository;
+import com.microservices.order.repository.OrderProductRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Revenue and volume rollups per (day, status) and per (day, product). Committed order writes
+// add their deltas to in-memory maps and a scheduled flush MERGEs them in one transaction, so
+// today's hot rollup rows are written once per flush instead of being locked by every order
+// transaction. Pending deltas are flushed on shutdown; a crash loses at most one flush interval,
+// which the nightly rebuild repairs. rebuild() recomputes everything from orders and
+// orders_archive with a parallel scan over id-range chunks.
+@Service
+public class OrderRollupService {
+
+    private static final String MERGE_DAILY_SQL = "MERGE INTO order_daily_rollups t "
+            + "USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(20)), CAST(? AS BIGINT), CAST(? AS BIGINT), "
+            + "CAST(? AS DECIMAL(19, 2)))) AS s (bucket_date, status, order_count, units, revenue) "
+            + "ON t.bucket_date = s.bucket_date AND t.status = s.status "
+            + "WHEN MATCHED THEN UPDATE SET t.order_count = t.order_count + s.order_count, "
+            + "t.units = t.units + s.units, t.revenue = t.revenue + s.revenue "
+            + "WHEN NOT MATCHED THEN INSERT (bucket_date, status, order_count, units, revenue) "
+            + "VALUES (s.bucket_date, s.status, s.order_count, s.units, s.revenue)";
+    private static final String MERGE_PRODUCT_SQL = "MERGE INTO order_product_rollups t "
+            + "USING (VALUES (CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), "
+            + "CAST(? AS DECIMAL(19, 2)))) AS s (bucket_date, product_id, order_count, units, revenue) "
+            + "ON t.bucket_date = s.bucket_date AND t.product_id = s.product_id "
+            + "WHEN MATCHED THEN UPDATE SET t.order_count = t.order_count + s.order_count, "
+            + "t.units = t.units + s.units, t.revenue = t.revenue + s.revenue "
+            + "WHEN NOT MATCHED THEN INSERT (bucket_date, product_id, order_count, units, revenue) "
+            + "VALUES (s.bucket_date, s.product_id, s.order_count, s.units, s.revenue)";
+    private static final String SCAN_DAILY_SQL = "SELECT CAST(created_at AS DATE), status, COUNT(*), SUM(quantity), "
+            + "SUM(total_price) FROM %s WHERE id BETWEEN ? AND ? GROUP BY CAST(created_at AS DATE), status";
+    private static final String SCAN_PRODUCT_SQL = "SELECT CAST(o.created_at AS DATE), l.product_id, COUNT(*), "
+            + "SUM(l.quantity), SUM(COALESCE(l.line_total, 0)) FROM order_lines l JOIN %s o ON o.id = l.order_id "
+            + "WHERE o.id BETWEEN ? AND ? GROUP BY CAST(o.created_at AS DATE), l.product_id";
+    private static final List<String> ORDER_TABLES = List.of("orders", "orders_archive");
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final OrderDailyRollupRepository dailyRollupRepository;
+    private final OrderProductRollupRepository productRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int backfillChunkSize;
+    private final int backfillParallelism;
+
+    // Writers add under the read lock; a flush swaps the maps under the write lock
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private Map<DayStatus, Totals> pendingDaily = new ConcurrentHashMap<>();
+    private Map<DayProduct, Totals> pendingProducts = new ConcurrentHashMap<>();
+
+    public OrderRollupService(OrderDailyRollupRepository dailyRollupRepository,
+                              OrderProductRollupRepository productRollupRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${order.analytics.backfill-chunk-size:10000}") int backfillChunkSize,
+                              @Value("${order.analytics.backfill-parallelism:4}") int backfillParallelism) {
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.productRollupRepository = productRollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillChunkSize = backfillChunkSize;
+        this.backfillParallelism = backfillParallelism;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderLifecycleEvent event) {
+        pendingLock.readLock().lock();
+        try {
+            if (event.before() != null) {
+                addOrder(event.before(), -1);
+            }
+            if (event.after() != null) {
+                addOrder(event.after(), 1);
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${order.analytics.flush-interval-ms:1000}",
+            fixedDelayString = "${order.analytics.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<DayStatus, Totals> daily;
+        Map<DayProduct, Totals> products;
+        pendingLock.writeLock().lock();
+        try {
+            daily = pendingDaily;
+            products = pendingProducts;
+            pendingDaily = new ConcurrentHashMap<>();
+            pendingProducts = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        daily.values().removeIf(Totals::isZero);
+        products.values().removeIf(Totals::isZero);
+        if (daily.isEmpty() && products.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(MERGE_DAILY_SQL, daily.entrySet().stream()
+                        .map(entry -> entry.getValue().toRow(Date.valueOf(entry.getKey().day()), entry.getKey().status()))
+                        .toList());
+                jdbcTemplate.batchUpdate(MERGE_PRODUCT_SQL, products.entrySet().stream()
+                        .map(entry -> entry.getValue().toRow(Date.valueOf(entry.getKey().day()), entry.getKey().productId()))
+                        .toList());
+            });
+        } catch (RuntimeException e) {
+            // Keep the deltas for the next flush
+            pendingLock.readLock().lock();
+            try {
+                daily.forEach((key, totals) -> pendingDaily.computeIfAbsent(key, k -> new Totals()).add(totals));
+                products.forEach((key, totals) -> pendingProducts.computeIfAbsent(key, k -> new Totals()).add(totals));
+            } finally {
+                pendingLock.readLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    // Deltas committed before shutdown would otherwise be lost with the maps
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    @Scheduled(cron = "${order.analytics.rebuild-cron:0 45 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Writes that commit while the scan runs may be missed or counted twice; run it off-peak
+    public synchronized RollupRebuildResponse rebuild() {
+        long startNanos = System.nanoTime();
+        pendingLock.writeLock().lock();
+        try {
+            // Everything committed so far is covered by the scan
+            pendingDaily = new ConcurrentHashMap<>();
+            pendingProducts = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (String table : ORDER_TABLES) {
+            Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM " + table);
+            if (range.get("lo") == null) {
+                continue;
+            }
+            long hi = ((Number) range.get("hi")).longValue();
+            for (long lo = ((Number) range.get("lo")).longValue(); lo <= hi; lo += backfillChunkSize) {
+                chunks.add(new Chunk(table, lo, Math.min(hi, lo + backfillChunkSize - 1)));
+            }
+        }
+
+        Map<DayStatus, Totals> daily = new HashMap<>();
+        Map<DayProduct, Totals> products = new HashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(backfillParallelism);
+        try {
+            List<Future<ChunkTotals>> scans = chunks.stream()
+                    .map(chunk -> pool.submit(() -> scan(chunk)))
+                    .toList();
+            for (Future<ChunkTotals> scan : scans) {
+                ChunkTotals totals = scan.get();
+                totals.daily().forEach((key, value) -> daily.computeIfAbsent(key, k -> new Totals()).add(value));
+                totals.products().forEach((key, value) -> products.computeIfAbsent(key, k -> new Totals()).add(value));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup rebuild was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM order_daily_rollups");
+            jdbcTemplate.update("DELETE FROM order_product_rollups");
+            jdbcTemplate.batchUpdate(MERGE_DAILY_SQL, daily.entrySet().stream()
+                    .map(entry -> entry.getValue().toRow(Date.valueOf(entry.getKey().day()), entry.getKey().status()))
+                    .toList());
+            jdbcTemplate.batchUpdate(MERGE_PRODUCT_SQL, products.entrySet().stream()
+                    .map(entry -> entry.getValue().toRow(Date.valueOf(entry.getKey().day()), entry.getKey().productId()))
+                    .toList());
+        });
+        return new RollupRebuildResponse(chunks.size(), daily.size(), products.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    // Reads only the rollup tables; at most one flush interval behind the orders table
+    @Transactional(readOnly = true)
+    public AnalyticsResponse getAnalytics(LocalDate from, LocalDate to, String groupBy) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        List<Object[]> sums = switch (groupBy.trim().toLowerCase()) {
+            case "day" -> dailyRollupRepository.sumByDay(start, end);
+            case "status" -> dailyRollupRepository.sumByStatus(start, end);
+            case "product" -> productRollupRepository.sumByProduct(start, end);
+            default -> throw new IllegalArgumentException("Unsupported groupBy: " + groupBy + " (allowed: day, status, product)");
+        };
+
+        List<AnalyticsRow> rows = new ArrayList<>(sums.size());
+        long totalOrders = 0;
+        long totalUnits = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (Object[] sum : sums) {
+            long orders = ((Number) sum[1]).longValue();
+            long units = ((Number) sum[2]).longValue();
+            BigDecimal revenue = ((BigDecimal) sum[3]).setScale(2, RoundingMode.HALF_UP);
+            if (orders == 0 && units == 0) {
+                continue;
+            }
+            rows.add(new AnalyticsRow(String.valueOf(sum[0]), orders, units, revenue));
+            totalOrders += orders;
+            totalUnits += units;
+            totalRevenue = totalRevenue.add(revenue);
+        }
+        // Grouped by product, orders counts the order lines of the product
+        return new AnalyticsResponse(start, end, groupBy.trim().toLowerCase(), rows, totalOrders, totalUnits, totalRevenue);
+    }
+
+    private void addOrder(OrderSnapshot order, int sign) {
+        LocalDate day = order.createdAt().toLocalDate();
+        pendingDaily.computeIfAbsent(new DayStatus(day, order.status()), key -> new Totals())
+                .addSigned(sign, order.quantity(), order.totalPrice());
+        if (order.lines() != null) {
+            for (OrderSnapshot.Line line : order.lines()) {
+                pendingProducts.computeIfAbsent(new DayProduct(day, line.productId()), key -> new Totals())
+                        .addSigned(sign, line.quantity(), line.lineTotal());
+            }
+        }
+    }
+
+    private ChunkTotals scan(Chunk chunk) {
+        Map<DayStatus, Totals> daily = new HashMap<>();
+        jdbcTemplate.query(String.format(SCAN_DAILY_SQL, chunk.table()), rs -> {
+            daily.computeIfAbsent(new DayStatus(rs.getDate(1).toLocalDate(), rs.getString(2)), key -> new Totals())
+                    .add(rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5));
+        }, chunk.fromId(), chunk.toId());
+        Map<DayProduct, Totals> products = new HashMap<>();
+        jdbcTemplate.query(String.format(SCAN_PRODUCT_SQL, chunk.table()), rs -> {
+            products.computeIfAbsent(new DayProduct(rs.getDate(1).toLocalDate(), rs.getLong(2)), key -> new Totals())
+                    .add(rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5));
+        }, chunk.fromId(), chunk.toId());
+        return new ChunkTotals(daily, products);
+    }
+
+    private record DayStatus(LocalDate day, String status) {
+    }
+
+    private record DayProduct(LocalDate day, Long productId) {
+    }
+
+    private record Chunk(String table, long fromId, long toId) {
+    }
+
+    private record ChunkTotals(Map<DayStatus, Totals> daily, Map<DayProduct, Totals> products) {
+    }
+
+    // Revenue is kept in cents so concurrent adds stay exact without locking
+    private static final class Totals {
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder units = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+
+        void addSigned(int sign, Integer quantity, BigDecimal revenue) {
+            add(sign, (long) sign * quantity, revenue == null ? BigDecimal.ZERO : revenue.multiply(BigDecimal.valueOf(sign)));
+        }
+
+        void add(long orderCount, long unitCount, BigDecimal revenue) {
+            orders.add(orderCount);
+            units.add(unitCount);
+            if (revenue != null) {
+                revenueCents.add(revenue.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+            }
+        }
+
+        void add(Totals other) {
+            orders.add(other.orders.sum());
+            units.add(other.units.sum());
+            revenueCents.add(other.revenueCents.sum());
+        }
+
+        boolean isZero() {
+            return orders.sum() == 0 && units.sum() == 0 && revenueCents.sum() == 0;
+        }
+
+        Object[] toRow(Date day, Object key) {
+            return new Object[] {day, key, orders.sum(), units.sum(), BigDecimal.valueOf(revenueCents.sum(), 2)};
+        }
+    }
+}
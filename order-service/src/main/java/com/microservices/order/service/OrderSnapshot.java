@@ -0,0 +1,48 @@
+package com.microservices.order.service;
+
+import com.microservices.order.model.Order;
+import com.microservices.order.model.OrderLine;
+import com.microservices.order.service.OrderPricingService.PricedLine;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Immutable copy of every mutable order field, taken inside the writing transaction.
+// lines is only captured by writes that change them (create, update, delete) and is null otherwise.
+public record OrderSnapshot(Long id, Long userId, Long productId, Integer quantity, BigDecimal totalPrice,
+                            String status, String shippingAddress, String notes, LocalDateTime createdAt,
+                            List<Line> lines) {
+
+    public static OrderSnapshot of(Order order) {
+        return new OrderSnapshot(order.getId(), order.getUserId(), order.getProductId(), order.getQuantity(),
+                order.getTotalPrice(), order.getStatus(), order.getShippingAddressText(), order.getNotes(),
+                order.getCreatedAt(), null);
+    }
+
+    public OrderSnapshot withStatus(String newStatus) {
+        return new OrderSnapshot(id, userId, productId, quantity, totalPrice, newStatus, shippingAddress, notes,
+                createdAt, lines);
+    }
+
+    public OrderSnapshot withPricedLines(List<PricedLine> pricedLines) {
+        return withLines(pricedLines.stream()
+                .map(line -> new Line(line.productId(), line.quantity(), line.lineTotal()))
+                .toList());
+    }
+
+    public OrderSnapshot withOrderLines(List<OrderLine> orderLines) {
+        return withLines(orderLines.stream()
+                .map(line -> new Line(line.getProductId(), line.getQuantity(), line.getLineTotal()))
+                .toList());
+    }
+
+    private OrderSnapshot withLines(List<Line> newLines) {
+        return new OrderSnapshot(id, userId, productId, quantity, totalPrice, status, shippingAddress, notes,
+                createdAt, newLines);
+    }
+
+    // lineTotal is null when the order was not priced server-side
+    public record Line(Long productId, Integer quantity, BigDecimal lineTotal) {
+    }
+}
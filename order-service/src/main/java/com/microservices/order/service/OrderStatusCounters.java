@@ -0,0 +1,72 @@
+package com.microservices.order.service;
+
+import com.microservices.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Live order counts per status. Adjusted after each committed order write and periodically
+// reset from a GROUP BY so any drift (writes racing a reconcile, bulk SQL) is bounded.
+@Component
+@RequiredArgsConstructor
+public class OrderStatusCounters {
+
+    private final OrderRepository orderRepository;
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderLifecycleEvent event) {
+        String before = event.before() != null ? event.before().status() : null;
+        String after = event.after() != null ? event.after().status() : null;
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        if (before != null) {
+            counter(before).decrement();
+        }
+        if (after != null) {
+            counter(after).increment();
+        }
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> counts = new TreeMap<>();
+        counters.forEach((status, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                counts.put(status, value);
+            }
+        });
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${order.status-counts.reconcile-interval-ms:60000}",
+            fixedDelayString = "${order.status-counts.reconcile-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        Map<String, Long> actual = new HashMap<>();
+        for (Object[] row : orderRepository.countGroupByStatus()) {
+            actual.put((String) row[0], (Long) row[1]);
+        }
+        counters.keySet().forEach(status -> actual.putIfAbsent(status, 0L));
+        actual.forEach((status, count) -> {
+            LongAdder counter = counter(status);
+            counter.add(count - counter.sum());
+        });
+    }
+
+    private LongAdder counter(String status) {
+        return counters.computeIfAbsent(status, key -> new LongAdder());
+    }
+}
@@ -0,0 +1,130 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.StatusTransitionResult;
+import com.microservices.order.dto.v2.StatusTransitionResult.Outcome;
+import com.microservices.order.exception.OrderNotFoundException;
+import com.microservices.order.exception.OrderStatusConflictException;
+import com.microservices.order.model.Order;
+import com.microservices.order.model.OrderStatus;
+import com.microservices.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Status changes as compare-and-set updates: the UPDATE only matches while the order is still
+// in the status the transition was validated against, so racing transitions never overwrite
+// each other and no row locks are held between the read and the write.
+@Service
+@RequiredArgsConstructor
+public class OrderStatusTransitionService {
+
+    private static final String CAS_STATUS_SQL =
+            "UPDATE orders SET status = ?, updated_at = ?, version = version + 1 WHERE id = ? AND status = ?";
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public Order transition(Long id, OrderStatus next) {
+        String current = orderRepository.findStatusById(id)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        if (!OrderStatus.parse(current).canTransitionTo(next)) {
+            throw new OrderStatusConflictException(id, current, next.name());
+        }
+        if (orderRepository.compareAndSetStatus(id, current, next.name(), LocalDateTime.now()) == 0) {
+            // Moved or deleted by someone else since we read it
+            String latest = orderRepository.findStatusById(id)
+                    .orElseThrow(() -> new OrderNotFoundException(id));
+            throw new OrderStatusConflictException(id, latest, next.name());
+        }
+        Order updated = orderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        OrderSnapshot after = OrderSnapshot.of(updated);
+        eventPublisher.publishEvent(OrderLifecycleEvent.statusChanged(after.withStatus(current), after));
+        return updated;
+    }
+
+    // One result per distinct id, in request order; the CAS updates go out as JDBC batches
+    @Transactional
+    public List<StatusTransitionResult> transitionAll(Collection<Long> ids, OrderStatus next) {
+        return transitionAll(ids, next, current -> isAllowed(current, next));
+    }
+
+    // As transitionAll, but only orders currently in expected are moved
+    @Transactional
+    public List<StatusTransitionResult> transitionAllFrom(Collection<Long> ids, OrderStatus expected, OrderStatus next) {
+        return transitionAll(ids, next, current -> expected.name().equals(current) && isAllowed(current, next));
+    }
+
+    private List<StatusTransitionResult> transitionAll(Collection<Long> ids, OrderStatus next, Predicate<String> eligible) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        Map<Long, Order> orders = orderRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<StatusTransitionResult> results = new ArrayList<>(distinctIds.size());
+        List<Order> candidates = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Order order = orders.get(id);
+            if (order == null) {
+                results.add(new StatusTransitionResult(id, Outcome.NOT_FOUND, null, null));
+            } else if (!eligible.test(order.getStatus())) {
+                results.add(new StatusTransitionResult(id, Outcome.INVALID_TRANSITION, order.getStatus(), order.getStatus()));
+            } else {
+                candidates.add(order);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(CAS_STATUS_SQL, candidates, JDBC_BATCH_SIZE, (ps, order) -> {
+            ps.setString(1, next.name());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, order.getId());
+            ps.setString(4, order.getStatus());
+        });
+
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Order order = candidates.get(index++);
+                if (count > 0) {
+                    OrderSnapshot before = OrderSnapshot.of(order);
+                    eventPublisher.publishEvent(OrderLifecycleEvent.statusChanged(before, before.withStatus(next.name())));
+                    results.add(new StatusTransitionResult(order.getId(), Outcome.TRANSITIONED, order.getStatus(), next.name()));
+                } else {
+                    results.add(new StatusTransitionResult(order.getId(), Outcome.CONFLICT, order.getStatus(), null));
+                }
+            }
+        }
+        // Restore request order
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            position.put(distinctIds.get(i), i);
+        }
+        results.sort(Comparator.comparing(result -> position.get(result.getOrderId())));
+        return results;
+    }
+
+    private boolean isAllowed(String current, OrderStatus next) {
+        try {
+            return OrderStatus.parse(current).canTransitionTo(next);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.OrderChange;
+import com.microservices.order.dto.v2.OutboxSinkStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pushes outbox changes to every enabled sink in batches of batch-size. Each sink keeps its own
+// offset (consumer "sink:<name>"), advanced only after the sink accepted the batch, so a failing
+// sink is retried from where it stopped without holding the others back.
+@Component
+public class OutboxRelay {
+
+    private static final String CONSUMER_PREFIX = "sink:";
+
+    private final OrderOutboxService outboxService;
+    private final List<OutboxSink> sinks;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    // Guarded by this
+    private final Map<String, SinkState> states = new LinkedHashMap<>();
+
+    public OutboxRelay(OrderOutboxService outboxService,
+                       List<OutboxSink> sinks,
+                       @Value("${order.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${order.outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${order.outbox.relay.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.outboxService = outboxService;
+        this.sinks = sinks;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        sinks.forEach(sink -> states.put(sink.name(), new SinkState()));
+    }
+
+    @Scheduled(initialDelayString = "${order.outbox.relay.interval-ms:1000}",
+            fixedDelayString = "${order.outbox.relay.interval-ms:1000}")
+    public void scheduledRelay() {
+        if (enabled) {
+            relay();
+        }
+    }
+
+    // Returns the number of changes delivered across all sinks
+    public synchronized int relay() {
+        int delivered = 0;
+        for (OutboxSink sink : sinks) {
+            delivered += relay(sink, states.get(sink.name()));
+        }
+        return delivered;
+    }
+
+    public synchronized List<OutboxSinkStatus> getStatus() {
+        return sinks.stream().map(sink -> {
+            SinkState state = states.get(sink.name());
+            return new OutboxSinkStatus(sink.name(), outboxService.committedOffset(CONSUMER_PREFIX + sink.name()),
+                    state.published, state.failures, state.lastError, state.lastErrorAt);
+        }).toList();
+    }
+
+    private int relay(OutboxSink sink, SinkState state) {
+        String consumer = CONSUMER_PREFIX + sink.name();
+        long offset = outboxService.committedOffset(consumer);
+        int delivered = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<OrderChange> changes = outboxService.readAfter(offset, batchSize);
+            if (changes.isEmpty()) {
+                break;
+            }
+            try {
+                sink.publish(changes);
+            } catch (RuntimeException e) {
+                state.failures++;
+                state.lastError = e.getMessage();
+                state.lastErrorAt = LocalDateTime.now();
+                break;
+            }
+            offset = changes.get(changes.size() - 1).getOffset();
+            outboxService.commit(consumer, offset);
+            state.published += changes.size();
+            delivered += changes.size();
+            if (changes.size() < batchSize) {
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    private static final class SinkState {
+        private long published;
+        private long failures;
+        private String lastError;
+        private LocalDateTime lastErrorAt;
+    }
+}
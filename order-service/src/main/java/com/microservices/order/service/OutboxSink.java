@@ -0,0 +1,16 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.OrderChange;
+
+import java.util.List;
+
+// Destination the outbox relay pushes order changes to. Delivery is at least once: a batch that
+// throws is offered again from the same offset on the next run, so sinks must tolerate repeats
+// (OrderChange.offset identifies a change).
+public interface OutboxSink {
+
+    // Stable name; the relay tracks the sink's position under it
+    String name();
+
+    void publish(List<OrderChange> changes);
+}
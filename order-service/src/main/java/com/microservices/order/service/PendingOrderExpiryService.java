@@ -0,0 +1,143 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.StatusTransitionResult;
+import com.microservices.order.dto.v2.StatusTransitionResult.Outcome;
+import com.microservices.order.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cancels orders still PENDING ttl-minutes after creation. Each pending order has a timer on a
+// hashed timing wheel, loaded from the orders table at startup and kept in step by committed
+// writes: a create schedules, leaving PENDING or deleting drops the timer. Due orders are cancelled
+// in batches with compare-and-set updates from PENDING, so an order confirmed after its timer
+// fired is left alone.
+@Service
+public class PendingOrderExpiryService {
+
+    private static final String LOAD_PENDING_SQL = "SELECT id, created_at FROM orders WHERE status = ?";
+    private static final int LOAD_FETCH_SIZE = 1000;
+    private static final String PENDING = OrderStatus.PENDING.name();
+
+    private final OrderStatusTransitionService statusTransitionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long ttlMs;
+    private final int batchSize;
+    // Guarded by itself
+    private final HashedTimingWheel wheel;
+
+    public PendingOrderExpiryService(OrderStatusTransitionService statusTransitionService,
+                                     JdbcTemplate jdbcTemplate,
+                                     @Value("${order.pending-expiry.enabled:true}") boolean enabled,
+                                     @Value("${order.pending-expiry.ttl-minutes:1440}") long ttlMinutes,
+                                     @Value("${order.pending-expiry.tick-ms:1000}") long tickMs,
+                                     @Value("${order.pending-expiry.wheel-size:4096}") int wheelSize,
+                                     @Value("${order.pending-expiry.batch-size:500}") int batchSize) {
+        this.statusTransitionService = statusTransitionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.ttlMs = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.batchSize = batchSize;
+        this.wheel = new HashedTimingWheel(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // Rebuilds every timer from the PENDING orders in the table; returns the number scheduled
+    public int reload() {
+        synchronized (wheel) {
+            wheel.clear();
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOAD_PENDING_SQL);
+            statement.setFetchSize(LOAD_FETCH_SIZE);
+            statement.setString(1, PENDING);
+            return statement;
+        }, resultSet -> {
+            Timestamp createdAt = resultSet.getTimestamp("created_at");
+            schedule(resultSet.getLong("id"), createdAt != null ? createdAt.toLocalDateTime() : null);
+        });
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderLifecycleEvent event) {
+        if (!enabled) {
+            return;
+        }
+        OrderSnapshot after = event.after();
+        if (after != null && PENDING.equals(after.status())) {
+            if (event.type() == OrderLifecycleEvent.Type.CREATED) {
+                schedule(after.id(), after.createdAt());
+            }
+            return;
+        }
+        synchronized (wheel) {
+            wheel.cancel(event.orderId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${order.pending-expiry.tick-ms:1000}",
+            fixedDelayString = "${order.pending-expiry.tick-ms:1000}")
+    public void tick() {
+        if (enabled) {
+            expireDue();
+        }
+    }
+
+    // Returns the number of orders cancelled
+    public synchronized int expireDue() {
+        List<Long> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        }
+        int cancelled = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                for (StatusTransitionResult result : statusTransitionService.transitionAllFrom(batch,
+                        OrderStatus.PENDING, OrderStatus.CANCELLED)) {
+                    if (result.getOutcome() == Outcome.TRANSITIONED) {
+                        cancelled++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Retry this and the remaining batches on the next tick
+                synchronized (wheel) {
+                    due.subList(from, due.size()).forEach(id -> wheel.schedule(id, 0));
+                }
+                throw e;
+            }
+        }
+        return cancelled;
+    }
+
+    private void schedule(long orderId, LocalDateTime createdAt) {
+        long createdAtMs = createdAt != null
+                ? createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        synchronized (wheel) {
+            wheel.schedule(orderId, createdAtMs + ttlMs);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.microservices.order.service;
+
+import com.microservices.order.model.ShippingAddress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Interns shipping address text into shipping_addresses so orders hold an id instead of up to 200
+// characters each. Lookups go by the SHA-256 of the text; an LRU of recently used hashes answers
+// repeat customers without a query. New rows commit in their own transaction before they are
+// cached, so a rolled-back order never leaves the cache pointing at a row that does not exist.
+@Service
+public class ShippingAddressService {
+
+    private static final String SELECT_SQL = "SELECT id, address, created_at FROM shipping_addresses WHERE address_hash = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO shipping_addresses (address_hash, address, created_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    // Guarded by itself
+    private final Map<String, ShippingAddress> recent;
+
+    public ShippingAddressService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${order.shipping-address.cache-size:10000}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ShippingAddress> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // The shared row for the text, created on first use; null for no address. Call it before the
+    // order's transaction starts, like pricing, so the insert never waits on the order's locks.
+    public ShippingAddress intern(String address) {
+        if (address == null) {
+            return null;
+        }
+        String hash = hash(address);
+        synchronized (recent) {
+            ShippingAddress cached = recent.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ShippingAddress interned = find(hash);
+        if (interned == null) {
+            try {
+                newTransaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, hash, address,
+                        Timestamp.valueOf(LocalDateTime.now())));
+            } catch (DuplicateKeyException e) {
+                // Another request interned the same address first
+            }
+            interned = find(hash);
+        }
+        if (interned == null || !interned.getAddress().equals(address)) {
+            throw new IllegalStateException("Could not intern shipping address " + hash);
+        }
+        synchronized (recent) {
+            recent.put(hash, interned);
+        }
+        return interned;
+    }
+
+    private ShippingAddress find(String hash) {
+        List<ShippingAddress> rows = jdbcTemplate.query(SELECT_SQL, (resultSet, rowNum) -> new ShippingAddress(
+                resultSet.getLong("id"), hash, resultSet.getString("address"),
+                resultSet.getTimestamp("created_at").toLocalDateTime()), hash);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static String hash(String address) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(address.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.microservices.order.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Space-Saving heavy-hitter summary over at most capacity items. Counters sit in a min-heap
+// indexed by item, so an update is a hash lookup plus O(log capacity) sift, and a new item
+// evicts the smallest counter and inherits its count as the possible overestimate (error).
+// Not thread-safe; TrendingProductTracker guards each sketch.
+final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    void add(long item, long weight) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(item, weight, 0, size);
+            heap[size++] = counter;
+            counters.put(item, counter);
+            siftUp(counter.index);
+            return;
+        }
+        Counter min = heap[0];
+        counters.remove(min.item);
+        min.item = item;
+        min.error = min.count;
+        min.count += weight;
+        counters.put(item, min);
+        siftDown(0);
+    }
+
+    // Count below which an item may have been evicted and not be listed
+    long minCount() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    void forEach(EntryConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(heap[i].item, heap[i].count, heap[i].error);
+        }
+    }
+
+    void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long item, long count, long error);
+    }
+
+    private static final class Counter {
+        private long item;
+        private long count;
+        private long error;
+        private int index;
+
+        private Counter(long item, long count, long error, int index) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.TrendingProduct;
+import com.microservices.order.dto.v2.TrendingProductsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Most-ordered products over a sliding window, by units. Committed creates feed one Space-Saving
+// sketch per minute (last hour) and per hour (last day), reused round-robin, so memory is fixed at
+// (60 + 24) * capacity counters whatever the product catalogue size. A query merges the current,
+// partly filled bucket with the whole buckets before it, one bucket per started bucket length of
+// the window, so the covered time can fall short of the window by up to one bucket.
+@Service
+public class TrendingProductTracker {
+
+    private static final Pattern WINDOW = Pattern.compile("(\\d+)([mhd])");
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final int capacity;
+    private final long cacheMs;
+    private final BucketRing minutes;
+    private final BucketRing hours;
+    private final Map<String, CachedTop> cache = new ConcurrentHashMap<>();
+
+    public TrendingProductTracker(@Value("${order.trending.capacity:200}") int capacity,
+                                  @Value("${order.trending.cache-ms:1000}") long cacheMs) {
+        this.capacity = capacity;
+        this.cacheMs = cacheMs;
+        this.minutes = new BucketRing(60, MINUTE_MS, capacity);
+        this.hours = new BucketRing(24, HOUR_MS, capacity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderLifecycleEvent event) {
+        if (event.type() != OrderLifecycleEvent.Type.CREATED) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        OrderSnapshot order = event.after();
+        if (order.lines() == null) {
+            record(order.productId(), order.quantity(), now);
+            return;
+        }
+        for (OrderSnapshot.Line line : order.lines()) {
+            record(line.productId(), line.quantity(), now);
+        }
+    }
+
+    public TrendingProductsResponse getTrending(String window, int k) {
+        if (k < 1 || k > capacity) {
+            throw new IllegalArgumentException("k must be between 1 and " + capacity);
+        }
+        long windowMs = parseWindow(window);
+        String cacheKey = windowMs + ":" + k;
+        long now = System.currentTimeMillis();
+        CachedTop cached = cache.get(cacheKey);
+        if (cached != null && now < cached.expiresAt()) {
+            return cached.response();
+        }
+
+        BucketRing ring = windowMs <= minutes.span() ? minutes : hours;
+        int buckets = (int) ((windowMs + ring.bucketMs - 1) / ring.bucketMs);
+        List<TrendingProduct> top = ring.merge(buckets, now).entrySet().stream()
+                .map(entry -> new TrendingProduct(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .sorted(Comparator.comparingLong(TrendingProduct::getUnits).reversed()
+                        .thenComparing(TrendingProduct::getProductId))
+                .limit(k)
+                .toList();
+        TrendingProductsResponse response = new TrendingProductsResponse(window, k, LocalDateTime.now(), top);
+        cache.put(cacheKey, new CachedTop(response, now + cacheMs));
+        return response;
+    }
+
+    private void record(Long productId, Integer quantity, long now) {
+        if (productId == null || quantity == null || quantity <= 0) {
+            return;
+        }
+        minutes.add(productId, quantity, now);
+        hours.add(productId, quantity, now);
+    }
+
+    private long parseWindow(String window) {
+        Matcher matcher = WINDOW.matcher(window == null ? "" : window.trim().toLowerCase());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid window: " + window + " (expected e.g. 15m, 1h, 24h, 1d)");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        long windowMs = switch (matcher.group(2)) {
+            case "m" -> amount * MINUTE_MS;
+            case "h" -> amount * HOUR_MS;
+            default -> amount * 24 * HOUR_MS;
+        };
+        if (windowMs <= 0 || windowMs > hours.span()) {
+            throw new IllegalArgumentException("Window must be between 1m and 24h: " + window);
+        }
+        return windowMs;
+    }
+
+    // Fixed ring of sketches; slot i holds bucket b with b % size == i, cleared when b moves on
+    private static final class BucketRing {
+        private final long bucketMs;
+        private final SpaceSavingSketch[] sketches;
+        private final long[] bucketIds;
+
+        private BucketRing(int size, long bucketMs, int capacity) {
+            this.bucketMs = bucketMs;
+            this.sketches = new SpaceSavingSketch[size];
+            this.bucketIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                sketches[i] = new SpaceSavingSketch(capacity);
+                bucketIds[i] = -1;
+            }
+        }
+
+        private long span() {
+            return bucketMs * sketches.length;
+        }
+
+        private synchronized void add(long productId, long units, long now) {
+            long bucket = now / bucketMs;
+            int slot = (int) (bucket % sketches.length);
+            if (bucketIds[slot] != bucket) {
+                sketches[slot].clear();
+                bucketIds[slot] = bucket;
+            }
+            sketches[slot].add(productId, units);
+        }
+
+        // productId -> {units, maxOverestimate} over the latest buckets, including the current one.
+        // A bucket that does not list a product may still have held up to its minCount units of it,
+        // so that much is added to both, keeping units an upper bound and units - maxOverestimate a
+        // lower bound of the true count.
+        private synchronized Map<Long, long[]> merge(int buckets, long now) {
+            long current = now / bucketMs;
+            Map<Long, long[]> merged = new HashMap<>();
+            long minCounts = 0;
+            for (long bucket = current - buckets + 1; bucket <= current; bucket++) {
+                int slot = (int) (bucket % sketches.length);
+                if (bucket < 0 || bucketIds[slot] != bucket) {
+                    continue;
+                }
+                long minCount = sketches[slot].minCount();
+                minCounts += minCount;
+                sketches[slot].forEach((item, count, error) -> {
+                    // {units, maxOverestimate, minCount of the buckets listing the product}
+                    long[] totals = merged.computeIfAbsent(item, key -> new long[3]);
+                    totals[0] += count;
+                    totals[1] += error;
+                    totals[2] += minCount;
+                });
+            }
+            for (long[] totals : merged.values()) {
+                long unlisted = minCounts - totals[2];
+                totals[0] += unlisted;
+                totals[1] += unlisted;
+            }
+            return merged;
+        }
+    }
+
+    private record CachedTop(TrendingProductsResponse response, long expiresAt) {
+    }
+}
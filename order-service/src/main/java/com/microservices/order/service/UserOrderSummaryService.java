@@ -0,0 +1,145 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.UserOrderSummaryResponse;
+import com.microservices.order.dto.v2.UserSummaryRebuildResponse;
+import com.microservices.order.model.OrderStatus;
+import com.microservices.order.repository.UserOrderSummaryRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// Per-user order count, spend and last order date. Every order write applies its delta inside the
+// writing transaction, so the summary commits or rolls back with the order itself and support
+// tooling reads one row instead of scanning the user's orders. Archiving moves orders without
+// changing them and leaves the summary alone; rebuild() replays orders and orders_archive.
+@Service
+public class UserOrderSummaryService {
+
+    private static final String CANCELLED = OrderStatus.CANCELLED.name();
+
+    private static final String MERGE_SQL = "MERGE INTO user_order_summaries t "
+            + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS DECIMAL(19, 2)), "
+            + "CAST(? AS TIMESTAMP))) AS s (user_id, order_count, cancelled_count, total_spent, last_order_at) "
+            + "ON t.user_id = s.user_id "
+            + "WHEN MATCHED THEN UPDATE SET t.order_count = t.order_count + s.order_count, "
+            + "t.cancelled_count = t.cancelled_count + s.cancelled_count, t.total_spent = t.total_spent + s.total_spent, "
+            + "t.last_order_at = CASE WHEN t.last_order_at IS NULL OR t.last_order_at < s.last_order_at "
+            + "THEN s.last_order_at ELSE t.last_order_at END "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, order_count, cancelled_count, total_spent, last_order_at) "
+            + "VALUES (s.user_id, s.order_count, s.cancelled_count, s.total_spent, s.last_order_at)";
+    // The removed order may still be pending in the persistence context, so it is excluded by id
+    private static final String RESET_LAST_ORDER_SQL = "UPDATE user_order_summaries SET last_order_at = "
+            + "(SELECT MAX(created_at) FROM (SELECT created_at FROM orders WHERE user_id = ? AND id <> ? "
+            + "UNION ALL SELECT created_at FROM orders_archive WHERE user_id = ?) o) WHERE user_id = ?";
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM user_order_summaries WHERE user_id = ? AND order_count <= 0";
+    // Upserts rather than delete-and-insert, so a concurrent first order for a new user never hits a
+    // duplicate key against the rebuild's insert
+    private static final String REBUILD_SQL = "MERGE INTO user_order_summaries t "
+            + "USING (SELECT user_id, COUNT(*) AS order_count, "
+            + "SUM(CASE WHEN status = ? THEN 1 ELSE 0 END) AS cancelled_count, "
+            + "SUM(CASE WHEN status = ? THEN 0 ELSE COALESCE(total_price, 0) END) AS total_spent, "
+            + "MAX(created_at) AS last_order_at "
+            + "FROM (SELECT user_id, status, total_price, created_at FROM orders "
+            + "UNION ALL SELECT user_id, status, total_price, created_at FROM orders_archive) o GROUP BY user_id) s "
+            + "ON t.user_id = s.user_id "
+            + "WHEN MATCHED THEN UPDATE SET t.order_count = s.order_count, t.cancelled_count = s.cancelled_count, "
+            + "t.total_spent = s.total_spent, t.last_order_at = s.last_order_at "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, order_count, cancelled_count, total_spent, last_order_at) "
+            + "VALUES (s.user_id, s.order_count, s.cancelled_count, s.total_spent, s.last_order_at)";
+    private static final String DELETE_ORPHANED_SQL = "DELETE FROM user_order_summaries t "
+            + "WHERE NOT EXISTS (SELECT 1 FROM orders o WHERE o.user_id = t.user_id) "
+            + "AND NOT EXISTS (SELECT 1 FROM orders_archive a WHERE a.user_id = t.user_id)";
+
+    private final UserOrderSummaryRepository summaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserOrderSummaryService(UserOrderSummaryRepository summaryRepository, JdbcTemplate jdbcTemplate) {
+        this.summaryRepository = summaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Runs synchronously in the publisher's transaction, unlike the after-commit listeners
+    @EventListener
+    public void onOrderChanged(OrderLifecycleEvent event) {
+        OrderSnapshot before = event.before();
+        OrderSnapshot after = event.after();
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        if (before != null) {
+            deltas.computeIfAbsent(before.userId(), userId -> new Delta()).add(before, -1);
+        }
+        if (after != null) {
+            deltas.computeIfAbsent(after.userId(), userId -> new Delta()).add(after, 1);
+        }
+        deltas.forEach((userId, delta) -> {
+            if (!delta.isZero()) {
+                // Only a new order for the user can move its last order date forward
+                LocalDateTime lastOrderAt = delta.orders > 0 ? delta.lastOrderAt : null;
+                jdbcTemplate.update(MERGE_SQL, userId, delta.orders, delta.cancelled, delta.spent,
+                        lastOrderAt != null ? Timestamp.valueOf(lastOrderAt) : null);
+            }
+        });
+
+        // The order left this user (deleted or moved to another user): its date may have been the latest
+        if (before != null && (after == null || !Objects.equals(before.userId(), after.userId()))) {
+            jdbcTemplate.update(DELETE_EMPTY_SQL, before.userId());
+            jdbcTemplate.update(RESET_LAST_ORDER_SQL, before.userId(), before.id(), before.userId(), before.userId());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public UserOrderSummaryResponse getSummary(Long userId) {
+        return summaryRepository.findById(userId)
+                .map(summary -> new UserOrderSummaryResponse(summary.getUserId(), summary.getOrderCount(),
+                        summary.getCancelledCount(), summary.getTotalSpent(), summary.getLastOrderAt()))
+                .orElseGet(() -> new UserOrderSummaryResponse(userId, 0, 0, BigDecimal.ZERO.setScale(2), null));
+    }
+
+    @Scheduled(cron = "${order.user-summary.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Overwrites every summary with the replayed totals and drops users left without orders. The totals
+    // are read once at the start of the MERGE, so an order committed while it runs can be missing
+    // from its user's row until the next rebuild; order writes themselves never fail because of it
+    @Transactional
+    public synchronized UserSummaryRebuildResponse rebuild() {
+        long startNanos = System.nanoTime();
+        int users = jdbcTemplate.update(REBUILD_SQL, CANCELLED, CANCELLED);
+        jdbcTemplate.update(DELETE_ORPHANED_SQL);
+        return new UserSummaryRebuildResponse(users, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private static final class Delta {
+        private long orders;
+        private long cancelled;
+        private BigDecimal spent = BigDecimal.ZERO;
+        private LocalDateTime lastOrderAt;
+
+        private void add(OrderSnapshot order, int sign) {
+            boolean cancelled = CANCELLED.equals(order.status());
+            this.orders += sign;
+            this.cancelled += cancelled ? sign : 0;
+            if (!cancelled && order.totalPrice() != null) {
+                spent = spent.add(order.totalPrice().multiply(BigDecimal.valueOf(sign)));
+            }
+            if (sign > 0) {
+                lastOrderAt = order.createdAt();
+            }
+        }
+
+        private boolean isZero() {
+            return orders == 0 && cancelled == 0 && spent.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.v2.OrderChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+// POSTs each batch as a JSON array; any non-2xx response or I/O error fails the batch
+@Component
+@ConditionalOnProperty(name = "order.outbox.sinks.webhook.enabled", havingValue = "true")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+    private final String url;
+
+    public WebhookOutboxSink(RestClient.Builder builder,
+                             @Value("${order.outbox.sinks.webhook.url}") String url,
+                             @Value("${order.outbox.sinks.webhook.connect-timeout-ms:1000}") long connectTimeoutMs,
+                             @Value("${order.outbox.sinks.webhook.read-timeout-ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = builder
+                .requestFactory(requestFactory)
+                .build();
+        this.url = url;
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void publish(List<OrderChange> changes) {
+        restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(changes)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -4,10 +4,21 @@ import com.microservices.order.dto.v1.OrderRequest;
 import com.microservices.order.dto.v1.OrderResponse;
 import com.microservices.order.exception.OrderNotFoundException;
 import com.microservices.order.model.Order;
+import com.microservices.order.model.OrderStatus;
+import com.microservices.order.model.ShippingAddress;
 import com.microservices.order.repository.OrderRepository;
+import com.microservices.order.service.OrderLifecycleEvent;
+import com.microservices.order.service.OrderLineService;
+import com.microservices.order.service.OrderPricingService;
+import com.microservices.order.service.OrderPricingService.LineItem;
+import com.microservices.order.service.OrderPricingService.PricedOrder;
+import com.microservices.order.service.OrderSnapshot;
+import com.microservices.order.service.ShippingAddressService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,19 +28,32 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderPricingService pricingService;
+    private final OrderLineService orderLineService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShippingAddressService shippingAddressService;
 
-    @Transactional
+    // Priced before the transaction starts so a product-service call never holds a connection
     public OrderResponse createOrder(OrderRequest request) {
-        Order order = new Order();
-        order.setUserId(request.getUserId());
-        order.setProductId(request.getProductId());
-        order.setQuantity(request.getQuantity());
-        order.setTotalPrice(request.getTotalPrice());
-        order.setShippingAddress(request.getShippingAddress());
-        order.setStatus("PENDING");
+        PricedOrder priced = pricingService.priceLines(
+                List.of(new LineItem(request.getProductId(), request.getQuantity())), request.getTotalPrice());
+        ShippingAddress shippingAddress = shippingAddressService.intern(request.getShippingAddress());
+        return transactionTemplate.execute(status -> {
+            Order order = new Order();
+            order.setUserId(request.getUserId());
+            order.setProductId(request.getProductId());
+            order.setQuantity(request.getQuantity());
+            order.setTotalPrice(priced.totalPrice());
+            order.setShippingAddress(shippingAddress);
+            order.setStatus(OrderStatus.PENDING.name());
 
-        Order savedOrder = orderRepository.save(order);
-        return mapToResponse(savedOrder);
+            Order savedOrder = orderRepository.save(order);
+            orderLineService.insertLines(savedOrder.getId(), priced.lines());
+            eventPublisher.publishEvent(OrderLifecycleEvent.created(
+                    OrderSnapshot.of(savedOrder).withPricedLines(priced.lines())));
+            return mapToResponse(savedOrder);
+        });
     }
 
     @Transactional(readOnly = true)
@@ -46,27 +70,37 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional
     public OrderResponse updateOrder(Long id, OrderRequest request) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
+        PricedOrder priced = pricingService.priceLines(
+                List.of(new LineItem(request.getProductId(), request.getQuantity())), request.getTotalPrice());
+        ShippingAddress shippingAddress = shippingAddressService.intern(request.getShippingAddress());
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new OrderNotFoundException(id));
+            OrderSnapshot before = OrderSnapshot.of(order).withOrderLines(order.getLines());
 
-        order.setUserId(request.getUserId());
-        order.setProductId(request.getProductId());
-        order.setQuantity(request.getQuantity());
-        order.setTotalPrice(request.getTotalPrice());
-        order.setShippingAddress(request.getShippingAddress());
+            order.setUserId(request.getUserId());
+            order.setProductId(request.getProductId());
+            order.setQuantity(request.getQuantity());
+            order.setTotalPrice(priced.totalPrice());
+            order.setShippingAddress(shippingAddress);
 
-        Order updatedOrder = orderRepository.save(order);
-        return mapToResponse(updatedOrder);
+            Order updatedOrder = orderRepository.save(order);
+            orderLineService.replaceLines(id, priced.lines());
+            eventPublisher.publishEvent(OrderLifecycleEvent.updated(before,
+                    OrderSnapshot.of(updatedOrder).withPricedLines(priced.lines())));
+            return mapToResponse(updatedOrder);
+        });
     }
 
     @Transactional
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new OrderNotFoundException(id);
-        }
-        orderRepository.deleteById(id);
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        OrderSnapshot before = OrderSnapshot.of(order).withOrderLines(order.getLines());
+        orderRepository.delete(order);
+        orderLineService.deleteLines(id);
+        eventPublisher.publishEvent(OrderLifecycleEvent.deleted(before));
     }
 
     private OrderResponse mapToResponse(Order order) {
@@ -77,7 +111,7 @@ public class OrderService {
                 order.getQuantity(),
                 order.getTotalPrice(),
                 order.getStatus(),
-                order.getShippingAddress(),
+                order.getShippingAddressText(),
                 order.getCreatedAt(),
                 order.getUpdatedAt()
         );
@@ -0,0 +1,212 @@
+package com.microservices.order.service.v2;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.dto.v2.BatchOrderResponse;
+import com.microservices.order.dto.v2.BatchOrderResult;
+import com.microservices.order.dto.v2.BatchOrderResult.Outcome;
+import com.microservices.order.dto.v2.OrderRequest;
+import com.microservices.order.exception.ProductServiceUnavailableException;
+import com.microservices.order.service.OrderBatchWriter;
+import com.microservices.order.service.OrderBatchWriter.NewOrder;
+import com.microservices.order.service.OrderPricingService;
+import com.microservices.order.service.OrderPricingService.LineItem;
+import com.microservices.order.service.OrderPricingService.PricedOrder;
+import com.microservices.order.service.OrderRateLimiter;
+import com.microservices.order.service.ShippingAddressService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Many orders from one request body. The JSON array is read one element at a time, so only the
+// current chunk is ever bound in memory. Each chunk is validated, rate limited and priced with
+// one product-service call, then written as JDBC batches in one transaction per chunk; a
+// chunk-size at or above max-items makes the whole batch a single transaction. Every order gets
+// its own result instead of one bad order failing the request.
+@Service
+public class OrderBatchService {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final OrderPricingService pricingService;
+    private final OrderBatchWriter orderBatchWriter;
+    private final OrderRateLimiter rateLimiter;
+    private final ShippingAddressService shippingAddressService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+    private final int chunkSize;
+
+    public OrderBatchService(ObjectMapper objectMapper,
+                             Validator validator,
+                             OrderPricingService pricingService,
+                             OrderBatchWriter orderBatchWriter,
+                             OrderRateLimiter rateLimiter,
+                             ShippingAddressService shippingAddressService,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${order.batch.max-items:1000}") int maxItems,
+                             @Value("${order.batch.chunk-size:200}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.pricingService = pricingService;
+        this.orderBatchWriter = orderBatchWriter;
+        this.rateLimiter = rateLimiter;
+        this.shippingAddressService = shippingAddressService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxItems = maxItems;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, maxItems));
+    }
+
+    public BatchOrderResponse createOrders(InputStream body) throws IOException {
+        List<BatchOrderResult> results = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        String error = null;
+        boolean written = false;
+        int index = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Request body must be a JSON array of orders");
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), index++) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of input: the array is not closed");
+                }
+                if (index >= maxItems) {
+                    parser.skipChildren();
+                    results.add(rejected(index, List.of("A batch cannot have more than " + maxItems + " orders")));
+                    continue;
+                }
+                // One element as a tree: a bad field fails this order only, not the rest of the stream
+                JsonNode element = parser.readValueAsTree();
+                Item item = bind(index, element, results);
+                if (item != null) {
+                    chunk.add(item);
+                }
+                if (chunk.size() == chunkSize) {
+                    write(chunk, results);
+                    chunk.clear();
+                    written = true;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            if (!written) {
+                throw new IllegalArgumentException("Malformed batch body: " + e.getOriginalMessage());
+            }
+            // Earlier chunks are committed, so finish the orders read so far and report them all
+            error = "Malformed batch body at order " + index + ": " + e.getOriginalMessage();
+        }
+        write(chunk, results);
+
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return new BatchOrderResponse(results.size(), count(results, Outcome.CREATED), count(results, Outcome.REJECTED),
+                count(results, Outcome.FAILED), error, results);
+    }
+
+    private Item bind(int index, JsonNode element, List<BatchOrderResult> results) {
+        OrderRequest request;
+        try {
+            request = objectMapper.treeToValue(element, OrderRequest.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            results.add(rejected(index, List.of("Unreadable order: " + e.getMessage())));
+            return null;
+        }
+        if (request == null) {
+            results.add(rejected(index, List.of("Order must be a JSON object")));
+            return null;
+        }
+        List<String> violations = validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+        if (!violations.isEmpty()) {
+            results.add(rejected(index, violations));
+            return null;
+        }
+        return new Item(index, request);
+    }
+
+    // Priced before the transaction starts so product-service calls never hold a connection
+    private void write(List<Item> chunk, List<BatchOrderResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            pricingService.prefetch(chunk.stream()
+                    .flatMap(item -> OrderService.lineItemsOf(item.request()).stream())
+                    .map(LineItem::productId)
+                    .collect(Collectors.toSet()));
+        } catch (RuntimeException e) {
+            // Earlier chunks are committed; fail only this one and keep reading the stream
+            chunk.forEach(item -> results.add(failed(item.index(), e)));
+            return;
+        }
+
+        List<Item> accepted = new ArrayList<>(chunk.size());
+        List<NewOrder> orders = new ArrayList<>(chunk.size());
+        for (Item item : chunk) {
+            OrderRequest request = item.request();
+            try {
+                rateLimiter.acquire(request.getUserId());
+            } catch (RuntimeException e) {
+                results.add(rejected(item.index(), List.of(String.valueOf(e.getMessage()))));
+                continue;
+            }
+            // From here on a permit is held; it is given back whenever the order is not created
+            try {
+                PricedOrder priced = pricingService.priceLines(OrderService.lineItemsOf(request), request.getTotalPrice());
+                orders.add(new NewOrder(request.getUserId(), shippingAddressService.intern(request.getShippingAddress()),
+                        request.getNotes(), priced));
+                accepted.add(item);
+            } catch (ProductServiceUnavailableException e) {
+                rateLimiter.release(request.getUserId());
+                results.add(failed(item.index(), e));
+            } catch (RuntimeException e) {
+                rateLimiter.release(request.getUserId());
+                results.add(rejected(item.index(), List.of(String.valueOf(e.getMessage()))));
+            }
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> orderBatchWriter.insertAll(orders, now));
+            for (int i = 0; i < accepted.size(); i++) {
+                results.add(new BatchOrderResult(accepted.get(i).index(), Outcome.CREATED, ids.get(i), List.of()));
+            }
+        } catch (RuntimeException e) {
+            accepted.forEach(item -> {
+                rateLimiter.release(item.request().getUserId());
+                results.add(failed(item.index(), e));
+            });
+        }
+    }
+
+    private static BatchOrderResult rejected(int index, List<String> errors) {
+        return new BatchOrderResult(index, Outcome.REJECTED, null, errors);
+    }
+
+    private static BatchOrderResult failed(int index, RuntimeException e) {
+        return new BatchOrderResult(index, Outcome.FAILED, null, List.of(String.valueOf(e.getMessage())));
+    }
+
+    private static int count(List<BatchOrderResult> results, Outcome outcome) {
+        return (int) results.stream().filter(result -> result.getOutcome() == outcome).count();
+    }
+
+    private record Item(int index, OrderRequest request) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.microservices.order.service.v2;
+
+import com.microservices.order.client.ProductPrice;
+import com.microservices.order.client.ProductServiceClient;
+import com.microservices.order.client.UserServiceClient;
+import com.microservices.order.client.UserSummary;
+import com.microservices.order.dto.v2.CursorPage;
+import com.microservices.order.dto.v2.OrderHistoryProduct;
+import com.microservices.order.dto.v2.OrderHistoryResponse;
+import com.microservices.order.dto.v2.OrderHistoryUser;
+import com.microservices.order.dto.v2.OrderLineResponse;
+import com.microservices.order.dto.v2.OrderResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// One page of a user's orders with the user and product details resolved server-side. Only the
+// page's products are looked up, so a user with a long history cannot flood the shared pool with
+// batches; callers walk the rest with nextCursor. The user lookup overlaps the order query and distinct products are fetched in parallel batches on a bounded
+// pool, each call capped at timeout-ms; a failed or slow service leaves its part out of the
+// page and is listed in unavailable instead of failing the request.
+@Service
+public class OrderHistoryService {
+
+    private static final String USER_SERVICE = "user-service";
+    private static final String PRODUCT_SERVICE = "product-service";
+
+    private final OrderService orderService;
+    private final ProductServiceClient productServiceClient;
+    private final UserServiceClient userServiceClient;
+    private final long timeoutMs;
+    private final int productBatchSize;
+    private final ThreadPoolExecutor executor;
+
+    public OrderHistoryService(OrderService orderService,
+                               ProductServiceClient productServiceClient,
+                               UserServiceClient userServiceClient,
+                               @Value("${order.enrichment.timeout-ms:1000}") long timeoutMs,
+                               @Value("${order.enrichment.product-batch-size:100}") int productBatchSize,
+                               @Value("${order.enrichment.threads:8}") int threads,
+                               @Value("${order.enrichment.queue-capacity:200}") int queueCapacity) {
+        this.orderService = orderService;
+        this.productServiceClient = productServiceClient;
+        this.userServiceClient = userServiceClient;
+        this.timeoutMs = timeoutMs;
+        this.productBatchSize = productBatchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "order-enrichment-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public OrderHistoryResponse getEnrichedHistory(Long userId, String cursor, int size) {
+        CompletableFuture<UserSummary> userLookup = async(() -> userServiceClient.getUser(userId));
+        CursorPage<OrderResponse> page = orderService.getOrdersByUserIdPage(userId, cursor, size, false);
+        List<OrderResponse> orders = page.getContent();
+
+        List<Long> productIds = new ArrayList<>(orders.stream()
+                .flatMap(OrderHistoryService::productIdsOf)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        List<CompletableFuture<List<ProductPrice>>> productLookups = new ArrayList<>();
+        for (int from = 0; from < productIds.size(); from += productBatchSize) {
+            List<Long> batch = productIds.subList(from, Math.min(productIds.size(), from + productBatchSize));
+            productLookups.add(async(() -> productServiceClient.getProducts(batch)));
+        }
+
+        Set<String> unavailable = new LinkedHashSet<>();
+        OrderHistoryUser user = null;
+        try {
+            UserSummary summary = userLookup.join();
+            if (summary != null) {
+                user = new OrderHistoryUser(summary.getId(), summary.getUsername(), fullName(summary));
+            }
+        } catch (CompletionException | CancellationException e) {
+            unavailable.add(USER_SERVICE);
+        }
+
+        Map<Long, OrderHistoryProduct> products = new LinkedHashMap<>();
+        for (CompletableFuture<List<ProductPrice>> lookup : productLookups) {
+            try {
+                for (ProductPrice product : lookup.join()) {
+                    products.put(product.getId(), new OrderHistoryProduct(product.getId(), product.getName(), product.getActive()));
+                }
+            } catch (CompletionException | CancellationException e) {
+                unavailable.add(PRODUCT_SERVICE);
+            }
+        }
+
+        return new OrderHistoryResponse(userId, user, orders, products, List.copyOf(unavailable), !unavailable.isEmpty(),
+                page.isHasNext(), page.getNextCursor());
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor).orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: degrade this part of the page rather than queue behind other requests
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Stream<Long> productIdsOf(OrderResponse order) {
+        if (order.getLines() == null || order.getLines().isEmpty()) {
+            return Stream.of(order.getProductId());
+        }
+        return order.getLines().stream().map(OrderLineResponse::getProductId);
+    }
+
+    private static String fullName(UserSummary user) {
+        String fullName = Stream.of(user.getFirstName(), user.getLastName())
+                .filter(part -> part != null && !part.isBlank())
+                .collect(Collectors.joining(" "));
+        return fullName.isEmpty() ? null : fullName;
+    }
+}
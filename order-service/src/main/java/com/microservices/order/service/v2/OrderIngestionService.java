@@ -0,0 +1,245 @@
+package com.microservices.order.service.v2;
+
+import com.microservices.order.dto.v2.AsyncOrderStatus;
+import com.microservices.order.dto.v2.AsyncOrderStatus.State;
+import com.microservices.order.dto.v2.IngestionMetrics;
+import com.microservices.order.dto.v2.OrderRequest;
+import com.microservices.order.exception.AsyncOrderNotFoundException;
+import com.microservices.order.exception.IngestionQueueFullException;
+import com.microservices.order.service.OrderBatchWriter;
+import com.microservices.order.service.OrderBatchWriter.NewOrder;
+import com.microservices.order.service.OrderPricingService;
+import com.microservices.order.service.OrderPricingService.LineItem;
+import com.microservices.order.service.OrderPricingService.PricedOrder;
+import com.microservices.order.service.OrderRateLimiter;
+import com.microservices.order.service.ShippingAddressService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Asynchronous order intake with group commit. Request threads only enqueue; a single writer
+// thread drains whatever has queued up (up to batch-size), prices it with one product-service
+// call and inserts it as one JDBC batch in one transaction. Batches grow with load, so the
+// per-order transaction and round-trip cost shrinks exactly when throughput matters.
+@Service
+public class OrderIngestionService {
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final OrderPricingService pricingService;
+    private final OrderBatchWriter orderBatchWriter;
+    private final ShippingAddressService shippingAddressService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderRateLimiter rateLimiter;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long statusRetentionMs;
+    private final BlockingQueue<Submission> queue;
+    private final Map<String, AsyncOrderStatus> statuses = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedOrders = new LongAdder();
+    private final LongAdder commitLatencyTotalMs = new LongAdder();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicLong lastCommitLatencyMs = new AtomicLong();
+    private final LongAccumulator maxCommitLatencyMs = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderIngestionService(OrderPricingService pricingService,
+                                 OrderBatchWriter orderBatchWriter,
+                                 ShippingAddressService shippingAddressService,
+                                 TransactionTemplate transactionTemplate,
+                                 OrderRateLimiter rateLimiter,
+                                 @Value("${order.ingestion.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${order.ingestion.batch-size:200}") int batchSize,
+                                 @Value("${order.ingestion.status-retention-ms:600000}") long statusRetentionMs) {
+        this.pricingService = pricingService;
+        this.orderBatchWriter = orderBatchWriter;
+        this.shippingAddressService = shippingAddressService;
+        this.transactionTemplate = transactionTemplate;
+        this.rateLimiter = rateLimiter;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.statusRetentionMs = statusRetentionMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "order-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops taking new work and lets the writer flush what is already queued
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public AsyncOrderStatus submit(OrderRequest request) {
+        if (!running) {
+            rejected.increment();
+            throw new IngestionQueueFullException(queueCapacity);
+        }
+        rateLimiter.acquire(request.getUserId());
+        String trackingId = UUID.randomUUID().toString();
+        AsyncOrderStatus status = new AsyncOrderStatus(trackingId, State.QUEUED, null, null, LocalDateTime.now(), null);
+        statuses.put(trackingId, status);
+        if (!queue.offer(new Submission(trackingId, request, status.getSubmittedAt()))) {
+            // Nothing was queued, so the order must not count against the user's limit
+            rateLimiter.release(request.getUserId());
+            statuses.remove(trackingId);
+            rejected.increment();
+            throw new IngestionQueueFullException(queueCapacity);
+        }
+        accepted.increment();
+        return status;
+    }
+
+    public AsyncOrderStatus getStatus(String trackingId) {
+        AsyncOrderStatus status = statuses.get(trackingId);
+        if (status == null) {
+            throw new AsyncOrderNotFoundException(trackingId);
+        }
+        return status;
+    }
+
+    public IngestionMetrics getMetrics() {
+        long batchCount = batches.sum();
+        return new IngestionMetrics(
+                queue.size(),
+                queueCapacity,
+                accepted.sum(),
+                rejected.sum(),
+                created.sum(),
+                failed.sum(),
+                batchCount,
+                lastBatchSize.get(),
+                batchCount == 0 ? 0 : (double) batchedOrders.sum() / batchCount,
+                lastCommitLatencyMs.get(),
+                batchCount == 0 ? 0 : (double) commitLatencyTotalMs.sum() / batchCount,
+                maxCommitLatencyMs.get()
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${order.ingestion.status-retention-ms:600000}")
+    public void evictCompletedStatuses() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(statusRetentionMs, ChronoUnit.MILLIS);
+        statuses.values().removeIf(status -> status.getCompletedAt() != null && status.getCompletedAt().isBefore(cutoff));
+    }
+
+    private void drainLoop() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // writeBatch marks its own failures; never let the writer thread die
+                batch.forEach(submission -> fail(submission, e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Submission> batch) {
+        pricingService.prefetch(batch.stream()
+                .flatMap(submission -> OrderService.lineItemsOf(submission.request()).stream())
+                .map(LineItem::productId)
+                .collect(Collectors.toSet()));
+
+        List<PricedSubmission> priced = new ArrayList<>(batch.size());
+        for (Submission submission : batch) {
+            OrderRequest request = submission.request();
+            try {
+                PricedOrder order = pricingService.priceLines(OrderService.lineItemsOf(request), request.getTotalPrice());
+                priced.add(new PricedSubmission(submission,
+                        new NewOrder(request.getUserId(), shippingAddressService.intern(request.getShippingAddress()),
+                                request.getNotes(), order)));
+            } catch (RuntimeException e) {
+                fail(submission, e);
+            }
+        }
+        if (priced.isEmpty()) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids;
+        try {
+            // Orders and their lines as two JDBC batches in one transaction
+            ids = transactionTemplate.execute(status -> orderBatchWriter.insertAll(
+                    priced.stream().map(PricedSubmission::order).toList(), now));
+        } catch (RuntimeException e) {
+            priced.forEach(entry -> fail(entry.submission(), e));
+            return;
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        LocalDateTime completedAt = LocalDateTime.now();
+        for (int i = 0; i < priced.size(); i++) {
+            Submission submission = priced.get(i).submission();
+            statuses.put(submission.trackingId(), new AsyncOrderStatus(submission.trackingId(), State.CREATED,
+                    ids.get(i), null, submission.submittedAt(), completedAt));
+        }
+        created.add(priced.size());
+        batches.increment();
+        batchedOrders.add(priced.size());
+        lastBatchSize.set(priced.size());
+        lastCommitLatencyMs.set(latencyMs);
+        commitLatencyTotalMs.add(latencyMs);
+        maxCommitLatencyMs.accumulate(latencyMs);
+    }
+
+    // The order was never created, so its rate limit permit is given back
+    private void fail(Submission submission, Exception e) {
+        rateLimiter.release(submission.request().getUserId());
+        failed.increment();
+        statuses.put(submission.trackingId(), new AsyncOrderStatus(submission.trackingId(), State.FAILED,
+                null, e.getMessage(), submission.submittedAt(), LocalDateTime.now()));
+    }
+
+    private record Submission(String trackingId, OrderRequest request, LocalDateTime submittedAt) {
+    }
+
+    private record PricedSubmission(Submission submission, NewOrder order) {
+    }
+}
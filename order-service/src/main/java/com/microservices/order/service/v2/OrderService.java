@@ -1,55 +1,151 @@
 package com.microservices.order.service.v2;
 
+import com.microservices.order.dto.v2.BulkStatusTransitionRequest;
+import com.microservices.order.dto.v2.BulkStatusTransitionResponse;
+import com.microservices.order.dto.v2.CursorPage;
+import com.microservices.order.dto.v2.OrderLineResponse;
 import com.microservices.order.dto.v2.OrderRequest;
 import com.microservices.order.dto.v2.OrderResponse;
+import com.microservices.order.dto.v2.OrderSearchRequest;
+import com.microservices.order.dto.v2.OrderSearchResponse;
 import com.microservices.order.dto.v2.PagedResponse;
+import com.microservices.order.dto.v2.ProductUnitsSoldResponse;
+import com.microservices.order.dto.v2.StatusTransitionResult;
 import com.microservices.order.exception.OrderNotFoundException;
+import com.microservices.order.model.ArchivedOrder;
 import com.microservices.order.model.Order;
+import com.microservices.order.model.OrderLine;
+import com.microservices.order.model.OrderStatus;
+import com.microservices.order.model.ShippingAddress;
+import com.microservices.order.repository.ArchivedOrderRepository;
 import com.microservices.order.repository.OrderRepository;
+import com.microservices.order.service.IdempotencyService;
+import com.microservices.order.service.OrderLifecycleEvent;
+import com.microservices.order.service.OrderLineService;
+import com.microservices.order.service.OrderPricingService;
+import com.microservices.order.service.OrderPricingService.LineItem;
+import com.microservices.order.service.OrderPricingService.PricedLine;
+import com.microservices.order.service.OrderPricingService.PricedOrder;
+import com.microservices.order.service.OrderRateLimiter;
+import com.microservices.order.service.OrderSnapshot;
+import com.microservices.order.service.ShippingAddressService;
+import com.microservices.order.service.OrderStatusCounters;
+import com.microservices.order.service.OrderStatusTransitionService;
+import com.microservices.order.repository.OrderSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service("orderServiceV2")
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int MAX_KEYSET_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderPricingService pricingService;
+    private final OrderLineService orderLineService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShippingAddressService shippingAddressService;
+    private final OrderStatusCounters statusCounters;
+    private final OrderStatusTransitionService statusTransitionService;
+    private final IdempotencyService idempotencyService;
+    private final OrderRateLimiter rateLimiter;
+    private final EntityManager entityManager;
 
-    @Transactional
     public OrderResponse createOrder(OrderRequest request) {
-        Order order = new Order();
-        order.setUserId(request.getUserId());
-        order.setProductId(request.getProductId());
-        order.setQuantity(request.getQuantity());
-        order.setTotalPrice(request.getTotalPrice());
-        order.setShippingAddress(request.getShippingAddress());
-        order.setNotes(request.getNotes());
-        order.setStatus("PENDING");
+        return createOrder(request, order -> { });
+    }
+
+    // A repeated Idempotency-Key returns the order created by the first request instead of a new one
+    public CreatedOrder createOrder(OrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new CreatedOrder(createOrder(request), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to "
+                    + IdempotencyService.MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = idempotencyService.hash(request);
+        IdempotencyService.Result<OrderResponse> result = idempotencyService.execute(idempotencyKey, requestHash,
+                () -> createOrder(request, order -> idempotencyService.record(idempotencyKey, requestHash, order.getId())),
+                OrderResponse::getId,
+                orderId -> getOrderById(orderId, true));
+        return new CreatedOrder(result.value(), result.replayed());
+    }
+
+    // Priced before the transaction starts so a product-service call never holds a connection.
+    // The rate limit permit is given back when no order comes of it.
+    private OrderResponse createOrder(OrderRequest request, Consumer<Order> inTransaction) {
+        rateLimiter.acquire(request.getUserId());
+        try {
+            return priceAndInsert(request, inTransaction);
+        } catch (RuntimeException e) {
+            rateLimiter.release(request.getUserId());
+            throw e;
+        }
+    }
+
+    private OrderResponse priceAndInsert(OrderRequest request, Consumer<Order> inTransaction) {
+        PricedOrder priced = pricingService.priceLines(lineItemsOf(request), request.getTotalPrice());
+        ShippingAddress shippingAddress = shippingAddressService.intern(request.getShippingAddress());
+        return transactionTemplate.execute(status -> {
+            Order order = new Order();
+            order.setUserId(request.getUserId());
+            order.setProductId(priced.productId());
+            order.setQuantity(priced.quantity());
+            order.setTotalPrice(priced.totalPrice());
+            order.setShippingAddress(shippingAddress);
+            order.setNotes(request.getNotes());
+            order.setStatus(OrderStatus.PENDING.name());
 
-        Order savedOrder = orderRepository.save(order);
-        return mapToResponse(savedOrder);
+            Order savedOrder = orderRepository.save(order);
+            orderLineService.insertLines(savedOrder.getId(), priced.lines());
+            inTransaction.accept(savedOrder);
+            eventPublisher.publishEvent(OrderLifecycleEvent.created(
+                    OrderSnapshot.of(savedOrder).withPricedLines(priced.lines())));
+            return mapToResponse(savedOrder, toLineResponses(priced.lines()));
+        });
     }
 
+    // The archive is only consulted on request and only after a miss in the hot table
     @Transactional(readOnly = true)
-    public OrderResponse getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
-        return mapToResponse(order);
+    public OrderResponse getOrderById(Long id, boolean includeArchived) {
+        Optional<OrderResponse> order = orderRepository.findById(id).map(this::mapToResponse);
+        if (order.isEmpty() && includeArchived) {
+            order = archivedOrderRepository.findById(id).map(this::mapToResponse);
+        }
+        return order.orElseThrow(() -> new OrderNotFoundException(id));
     }
 
     @Transactional(readOnly = true)
     public PagedResponse<OrderResponse> getAllOrders(int page, int size, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("asc") 
-                ? Sort.by(sortBy).ascending() 
-                : Sort.by(sortBy).descending();
+        Sort sort = OrderSortField.fromProperty(sortBy)
+                .toSort(sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC);
         
         Pageable pageable = PageRequest.of(page, size, sort);
         Page<Order> orderPage = orderRepository.findAll(pageable);
@@ -69,54 +165,303 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public List<OrderResponse> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId).stream()
+    public List<OrderResponse> getOrdersByUserId(Long userId, boolean includeArchived) {
+        List<OrderResponse> orders = orderRepository.findByUserId(userId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
+        if (includeArchived) {
+            archivedOrderRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId).stream()
+                    .map(this::mapToResponse)
+                    .forEach(orders::add);
+        }
+        return orders;
+    }
+
+    // Newest first; the count is a separate index-only query and only runs when asked for
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getOrdersByUserIdPage(Long userId, String cursor, int size, boolean includeCount) {
+        checkKeysetPageSize(size);
+        // One extra row tells whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findPageByUserIdAfter(userId, after.createdAt(), after.id(), limit);
+        }
+        Long total = includeCount ? orderRepository.countByUserId(userId) : null;
+        return toCursorPage(rows, size, total);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getOrdersByStatusPage(String status, String cursor, int size, boolean includeCount) {
+        checkKeysetPageSize(size);
+        status = OrderStatus.parse(status).name();
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findFirstPageByStatus(status, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findPageByStatusAfter(status, after.createdAt(), after.id(), limit);
+        }
+        Long total = includeCount ? orderRepository.countByStatus(status) : null;
+        return toCursorPage(rows, size, total);
     }
 
+    // Every order with a line for the product, newest first by id; reads only the product's entries
+    // in idx_order_lines_product_order instead of the whole orders table
     @Transactional(readOnly = true)
-    public List<OrderResponse> getOrdersByStatus(String status) {
-        return orderRepository.findByStatus(status).stream()
+    public CursorPage<OrderResponse> getOrdersByProductIdPage(Long productId, String cursor, int size, boolean includeCount) {
+        checkKeysetPageSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findFirstPageByProductId(productId, limit);
+        } else {
+            rows = orderRepository.findPageByProductIdAfter(productId, OrderCursor.decode(cursor).id(), limit);
+        }
+        Long total = includeCount ? orderRepository.countByProductId(productId) : null;
+        return toCursorPage(rows, size, total);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductUnitsSoldResponse getUnitsSold(Long productId, boolean includeArchived) {
+        List<Object[]> rows = new ArrayList<>(orderRepository.sumUnitsByStatusForProduct(productId));
+        if (includeArchived) {
+            rows.addAll(archivedOrderRepository.sumUnitsByStatusForProduct(productId));
+        }
+        Map<String, Long> unitsByStatus = new TreeMap<>();
+        long orderCount = 0;
+        long unitsSold = 0;
+        for (Object[] row : rows) {
+            String status = (String) row[0];
+            long orders = ((Number) row[1]).longValue();
+            long units = ((Number) row[2]).longValue();
+            unitsByStatus.merge(status, units, Long::sum);
+            orderCount += orders;
+            if (!OrderStatus.CANCELLED.name().equals(status)) {
+                unitsSold += units;
+            }
+        }
+        return new ProductUnitsSoldResponse(productId, includeArchived, orderCount, unitsSold, unitsByStatus);
+    }
+
+    // Criteria map onto the existing (status | user_id, created_at, id), (total_price, id) and
+    // (created_at, id) indexes and the order_lines (product_id, order_id) index
+    @Transactional(readOnly = true)
+    public OrderSearchResponse searchOrders(OrderSearchRequest filter) {
+        Specification<Order> spec = buildSpecification(filter);
+        Sort sort = OrderSortField.fromProperty(filter.getSortBy())
+                .toSort("asc".equalsIgnoreCase(filter.getSortDirection()) ? Sort.Direction.ASC : Sort.Direction.DESC);
+        int page = filter.getPage();
+        int size = filter.getSize();
+
+        if (filter.isIncludeCount()) {
+            Page<Order> result = orderRepository.findAll(spec, PageRequest.of(page, size, sort));
+            List<OrderResponse> content = result.getContent().stream()
+                    .map(this::mapToResponse)
+                    .collect(Collectors.toList());
+            return new OrderSearchResponse(content, page, size, result.hasNext(), result.getTotalElements());
+        }
+
+        // Slice mode: one extra row tells whether there is a next page, and no count query runs
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = cb.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        List<Order> rows = entityManager.createQuery(query)
+                .setFirstResult(page * size)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > size;
+        List<OrderResponse> content = (hasNext ? rows.subList(0, size) : rows).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
+        return new OrderSearchResponse(content, page, size, hasNext, null);
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounters.snapshot();
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersByStatus(String status, boolean includeArchived) {
+        // Stored statuses are upper case; normalised here so shipped matches and a typo is a bad request
+        status = OrderStatus.parse(status).name();
+        List<OrderResponse> orders = orderRepository.findByStatus(status).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        if (includeArchived) {
+            archivedOrderRepository.findByStatusOrderByCreatedAtDescIdDesc(status).stream()
+                    .map(this::mapToResponse)
+                    .forEach(orders::add);
+        }
+        return orders;
     }
 
-    @Transactional
     public OrderResponse updateOrder(Long id, OrderRequest request) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
+        PricedOrder priced = pricingService.priceLines(lineItemsOf(request), request.getTotalPrice());
+        ShippingAddress shippingAddress = shippingAddressService.intern(request.getShippingAddress());
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new OrderNotFoundException(id));
+            OrderSnapshot before = OrderSnapshot.of(order).withOrderLines(order.getLines());
+
+            order.setUserId(request.getUserId());
+            order.setProductId(priced.productId());
+            order.setQuantity(priced.quantity());
+            order.setTotalPrice(priced.totalPrice());
+            order.setShippingAddress(shippingAddress);
+            order.setNotes(request.getNotes());
 
-        order.setUserId(request.getUserId());
-        order.setProductId(request.getProductId());
-        order.setQuantity(request.getQuantity());
-        order.setTotalPrice(request.getTotalPrice());
-        order.setShippingAddress(request.getShippingAddress());
-        order.setNotes(request.getNotes());
+            Order updatedOrder = orderRepository.save(order);
+            orderLineService.replaceLines(id, priced.lines());
+            eventPublisher.publishEvent(OrderLifecycleEvent.updated(before,
+                    OrderSnapshot.of(updatedOrder).withPricedLines(priced.lines())));
+            return mapToResponse(updatedOrder, toLineResponses(priced.lines()));
+        });
+    }
 
-        Order updatedOrder = orderRepository.save(order);
+    public OrderResponse updateOrderStatus(Long id, String status) {
+        Order updatedOrder = statusTransitionService.transition(id, OrderStatus.parse(status));
         return mapToResponse(updatedOrder);
     }
 
+    public BulkStatusTransitionResponse transitionOrderStatuses(BulkStatusTransitionRequest request) {
+        List<StatusTransitionResult> results = statusTransitionService.transitionAll(
+                request.getOrderIds(), OrderStatus.parse(request.getStatus()));
+        int transitioned = (int) results.stream()
+                .filter(result -> result.getOutcome() == StatusTransitionResult.Outcome.TRANSITIONED)
+                .count();
+        return new BulkStatusTransitionResponse(results.size(), transitioned, results);
+    }
+
     @Transactional
-    public OrderResponse updateOrderStatus(Long id, String status) {
+    public void deleteOrder(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
+        OrderSnapshot before = OrderSnapshot.of(order).withOrderLines(order.getLines());
+        orderRepository.delete(order);
+        orderLineService.deleteLines(id);
+        eventPublisher.publishEvent(OrderLifecycleEvent.deleted(before));
+    }
 
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
-        return mapToResponse(updatedOrder);
+    public record CreatedOrder(OrderResponse order, boolean replayed) {
     }
 
-    @Transactional
-    public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new OrderNotFoundException(id);
+    private Specification<Order> buildSpecification(OrderSearchRequest filter) {
+        // Validated up front so a bad filter is reported as a bad request
+        String status = filter.getStatus() != null && !filter.getStatus().isBlank()
+                ? OrderStatus.parse(filter.getStatus()).name()
+                : null;
+        if (filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && filter.getCreatedFrom().isAfter(filter.getCreatedTo())) {
+            throw new IllegalArgumentException("createdFrom must not be after createdTo");
+        }
+        if (filter.getMinTotalPrice() != null && filter.getMaxTotalPrice() != null
+                && filter.getMinTotalPrice().compareTo(filter.getMaxTotalPrice()) > 0) {
+            throw new IllegalArgumentException("minTotalPrice must not be greater than maxTotalPrice");
+        }
+
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getUserId() != null) {
+                predicates.add(cb.equal(root.get("userId"), filter.getUserId()));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (filter.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getCreatedFrom()));
+            }
+            if (filter.getCreatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), filter.getCreatedTo()));
+            }
+            if (filter.getMinTotalPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("totalPrice"), filter.getMinTotalPrice()));
+            }
+            if (filter.getMaxTotalPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("totalPrice"), filter.getMaxTotalPrice()));
+            }
+            if (filter.getProductId() != null) {
+                // A semi-join on the lines, so multi-line orders match on any line and are not repeated
+                Subquery<Long> lines = query.subquery(Long.class);
+                Root<OrderLine> line = lines.from(OrderLine.class);
+                lines.select(line.get("orderId")).where(
+                        cb.equal(line.get("productId"), filter.getProductId()),
+                        cb.equal(line.get("orderId"), root.get("id")));
+                predicates.add(cb.exists(lines));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private void checkKeysetPageSize(int size) {
+        if (size < 1 || size > MAX_KEYSET_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_KEYSET_PAGE_SIZE);
+        }
+    }
+
+    private CursorPage<OrderResponse> toCursorPage(List<Order> rows, int size, Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<Order> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? OrderCursor.of(page.get(page.size() - 1)).encode() : null;
+        List<OrderResponse> content = page.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, size, hasNext, nextCursor, totalElements);
+    }
+
+    // A request without lines is a single-line order
+    static List<LineItem> lineItemsOf(OrderRequest request) {
+        if (request.getLines() == null || request.getLines().isEmpty()) {
+            return List.of(new LineItem(request.getProductId(), request.getQuantity()));
+        }
+        return request.getLines().stream()
+                .map(line -> new LineItem(line.getProductId(), line.getQuantity()))
+                .toList();
+    }
+
+    private static List<OrderLineResponse> toLineResponses(List<PricedLine> lines) {
+        List<OrderLineResponse> responses = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            PricedLine line = lines.get(i);
+            responses.add(new OrderLineResponse(i + 1, line.productId(), line.quantity(), line.unitPrice(), line.lineTotal()));
         }
-        orderRepository.deleteById(id);
+        return responses;
+    }
+
+    private static List<OrderLineResponse> mapLines(List<OrderLine> lines) {
+        return lines.stream()
+                .map(line -> new OrderLineResponse(line.getLineNumber(), line.getProductId(), line.getQuantity(),
+                        line.getUnitPrice(), line.getLineTotal()))
+                .collect(Collectors.toList());
+    }
+
+    private OrderResponse mapToResponse(ArchivedOrder order) {
+        return new OrderResponse(
+                order.getId(),
+                order.getUserId(),
+                order.getProductId(),
+                order.getQuantity(),
+                order.getTotalPrice(),
+                order.getStatus(),
+                order.getShippingAddressText(),
+                order.getNotes(),
+                order.getCreatedAt(),
+                order.getUpdatedAt(),
+                mapLines(order.getLines())
+        );
     }
 
     private OrderResponse mapToResponse(Order order) {
+        return mapToResponse(order, mapLines(order.getLines()));
+    }
+
+    private OrderResponse mapToResponse(Order order, List<OrderLineResponse> lines) {
         return new OrderResponse(
                 order.getId(),
                 order.getUserId(),
@@ -124,10 +469,11 @@ public class OrderService {
                 order.getQuantity(),
                 order.getTotalPrice(),
                 order.getStatus(),
-                order.getShippingAddress(),
+                order.getShippingAddressText(),
                 order.getNotes(),
                 order.getCreatedAt(),
-                order.getUpdatedAt()
+                order.getUpdatedAt(),
+                lines
         );
     }
 }
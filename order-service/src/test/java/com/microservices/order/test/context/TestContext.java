@@ -4,10 +4,14 @@ import io.restassured.response.Response;
 import lombok.Data;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @Data
 public class TestContext {
     private Response response;
     private Long createdOrderId;
+    private List<Long> createdOrderIds = new ArrayList<>();
     private String apiVersion = "v1";
 }
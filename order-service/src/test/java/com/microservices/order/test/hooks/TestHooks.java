@@ -1,6 +1,17 @@
 package com.microservices.order.test.hooks;
 
+import com.microservices.order.repository.ArchivedOrderRepository;
+import com.microservices.order.repository.OrderEventRepository;
+import com.microservices.order.repository.OrderEventSnapshotRepository;
+import com.microservices.order.repository.OrderLineRepository;
+import com.microservices.order.repository.OrderOutboxEventRepository;
+import com.microservices.order.repository.OrderOutboxOffsetRepository;
 import com.microservices.order.repository.OrderRepository;
+import com.microservices.order.service.OrderRateLimiter;
+import com.microservices.order.service.OrderRollupService;
+import com.microservices.order.service.OrderStatusCounters;
+import com.microservices.order.service.UserOrderSummaryService;
+import com.microservices.order.test.context.TestContext;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.restassured.RestAssured;
@@ -14,6 +25,17 @@ public class TestHooks {
     private int port;
 
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final OrderStatusCounters orderStatusCounters;
+    private final OrderRollupService orderRollupService;
+    private final UserOrderSummaryService userOrderSummaryService;
+    private final OrderRateLimiter orderRateLimiter;
+    private final OrderOutboxEventRepository orderOutboxEventRepository;
+    private final OrderOutboxOffsetRepository orderOutboxOffsetRepository;
+    private final OrderEventRepository orderEventRepository;
+    private final OrderEventSnapshotRepository orderEventSnapshotRepository;
+    private final TestContext testContext;
 
     @Before
     public void setUp() {
@@ -24,5 +46,19 @@ public class TestHooks {
     @After
     public void tearDown() {
         orderRepository.deleteAll();
+        archivedOrderRepository.deleteAll();
+        orderLineRepository.deleteAllInBatch();
+        // deleteAll bypasses the services, so resync the in-memory counters, rollups and user summaries
+        orderStatusCounters.reconcile();
+        orderRollupService.rebuild();
+        userOrderSummaryService.rebuild();
+        // Scenarios reuse user ids, so one scenario's orders must not count against the next
+        orderRateLimiter.clear();
+        // Change feed scenarios count the changes of their own orders only
+        orderOutboxEventRepository.deleteAllInBatch();
+        orderOutboxOffsetRepository.deleteAllInBatch();
+        orderEventRepository.deleteAllInBatch();
+        orderEventSnapshotRepository.deleteAllInBatch();
+        testContext.getCreatedOrderIds().clear();
     }
 }
@@ -8,6 +8,8 @@ import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import lombok.RequiredArgsConstructor;
 
+import java.math.BigDecimal;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,8 +34,42 @@ public class CommonSteps {
         testContext.getResponse().then().body(fieldName, notNullValue());
     }
 
+    @Then("the response should not contain field {string}")
+    public void theResponseShouldNotContainField(String fieldName) {
+        testContext.getResponse().then().body("$", not(hasKey(fieldName)));
+    }
+
     @Then("the response field {string} should be {string}")
     public void theResponseFieldShouldBe(String fieldName, String expectedValue) {
         testContext.getResponse().then().body(fieldName, equalTo(expectedValue));
     }
+
+    @Then("the response list {string} should have {int} items")
+    public void theResponseListShouldHaveItems(String fieldName, int count) {
+        testContext.getResponse().then().body(fieldName, hasSize(count));
+    }
+
+    @Then("the response amount {string} should be {string}")
+    public void theResponseAmountShouldBe(String fieldName, String expectedAmount) {
+        BigDecimal actual = new BigDecimal(testContext.getResponse().jsonPath().getString(fieldName));
+        assertEquals(0, actual.compareTo(new BigDecimal(expectedAmount)),
+                "Expected " + fieldName + " " + expectedAmount + " but was " + actual);
+    }
+
+    @Then("the response flag {string} should be {string}")
+    public void theResponseFlagShouldBe(String fieldName, String expected) {
+        assertEquals(Boolean.parseBoolean(expected), testContext.getResponse().jsonPath().getBoolean(fieldName),
+                "Expected " + fieldName + " " + expected);
+    }
+
+    @Then("the response header {string} should be {string}")
+    public void theResponseHeaderShouldBe(String headerName, String expectedValue) {
+        testContext.getResponse().then().header(headerName, expectedValue);
+    }
+
+    @Then("all created orders should have the same id")
+    public void allCreatedOrdersShouldHaveTheSameId() {
+        assertEquals(1, testContext.getCreatedOrderIds().stream().distinct().count(),
+                "Expected a single order but got " + testContext.getCreatedOrderIds());
+    }
 }
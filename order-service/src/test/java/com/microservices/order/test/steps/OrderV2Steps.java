@@ -1,17 +1,49 @@
 package com.microservices.order.test.steps;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.service.OrderArchiveService;
+import com.microservices.order.service.OrderOutboxService;
+import com.microservices.order.service.OrderPricingService;
+import com.microservices.order.service.OrderRateLimiter;
+import com.microservices.order.service.OrderRollupService;
+import com.microservices.order.service.OutboxRelay;
+import com.microservices.order.service.PendingOrderExpiryService;
 import com.microservices.order.test.context.TestContext;
+import com.microservices.order.test.stub.OrderChangeWebhookStubController;
+import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @RequiredArgsConstructor
 public class OrderV2Steps {
 
     private final TestContext testContext;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderRollupService orderRollupService;
+    private final PendingOrderExpiryService pendingOrderExpiryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxRelay outboxRelay;
+    private final OrderChangeWebhookStubController webhookStub;
+    private final OrderPricingService orderPricingService;
+    private final ObjectMapper objectMapper;
+    private final OrderRateLimiter orderRateLimiter;
+
+    private long outboxGapOffset;
 
     @When("I create an order v2 with userId {long}, productId {long}, quantity {int}, totalPrice {double}, notes {string}")
     public void iCreateAnOrderV2(Long userId, Long productId, int quantity, double totalPrice, String notes) {
@@ -35,9 +67,186 @@ public class OrderV2Steps {
         testContext.setResponse(response);
         if (response.getStatusCode() == 201) {
             testContext.setCreatedOrderId(response.jsonPath().getLong("id"));
+            testContext.getCreatedOrderIds().add(response.jsonPath().getLong("id"));
+        }
+    }
+
+    @When("I create an order v2 with userId {long}, productId {long}, quantity {int} and no total price")
+    public void iCreateAnOrderV2WithoutTotalPrice(Long userId, Long productId, int quantity) {
+        String requestBody = String.format("""
+                {
+                    "userId": %d,
+                    "productId": %d,
+                    "quantity": %d,
+                    "shippingAddress": "123 Test Street"
+                }
+                """, userId, productId, quantity);
+
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post("/api/v2/orders");
+
+        testContext.setResponse(response);
+        if (response.getStatusCode() == 201) {
+            testContext.setCreatedOrderId(response.jsonPath().getLong("id"));
+            testContext.getCreatedOrderIds().add(response.jsonPath().getLong("id"));
+        }
+    }
+
+    @When("I create {int} orders v2 for userId {long}")
+    public void iCreateOrdersV2ForUserId(int count, Long userId) {
+        for (int i = 0; i < count; i++) {
+            iCreateAnOrderV2WithoutTotalPrice(userId, 100L, 1);
+        }
+    }
+
+    @When("I create {int} orders v2 for userId {long} and productId {long}")
+    public void iCreateOrdersV2ForUserIdAndProductId(int count, Long userId, Long productId) {
+        for (int i = 0; i < count; i++) {
+            iCreateAnOrderV2WithoutTotalPrice(userId, productId, 1);
+        }
+    }
+
+    @When("user {long} uses up the order rate limit and one order is given back")
+    public void userUsesUpTheRateLimitAndOneIsGivenBack(Long userId) {
+        for (int i = 0; i < orderRateLimiter.getMetrics().getMaxOrders(); i++) {
+            orderRateLimiter.acquire(userId);
+        }
+        orderRateLimiter.release(userId);
+    }
+
+    @When("I request the order rate limit metrics")
+    public void iRequestTheOrderRateLimitMetrics() {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/rate-limit/metrics");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I create an order v2 with idempotency key {string} and quantity {int}")
+    public void iCreateAnOrderV2WithIdempotencyKey(String idempotencyKey, int quantity) {
+        String requestBody = String.format("""
+                {
+                    "userId": 1,
+                    "productId": 100,
+                    "quantity": %d,
+                    "shippingAddress": "123 Test Street"
+                }
+                """, quantity);
+
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", idempotencyKey)
+                .body(requestBody)
+                .when()
+                .post("/api/v2/orders");
+
+        testContext.setResponse(response);
+        if (response.getStatusCode() == 201) {
+            testContext.setCreatedOrderId(response.jsonPath().getLong("id"));
+            testContext.getCreatedOrderIds().add(response.jsonPath().getLong("id"));
+        }
+    }
+
+    @When("the Idempotency-Key {string} was used for another order and has expired")
+    public void theIdempotencyKeyHasExpired(String idempotencyKey) {
+        // As left by an earlier day or another instance: stored, past its TTL, not yet purged
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(2);
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, order_id, created_at, expires_at) "
+                        + "VALUES (?, ?, ?, ?, ?)", idempotencyKey, "expired-request", 999999L,
+                Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt.plusDays(1)));
+    }
+
+    @When("I submit an order v2 asynchronously with userId {long}, productId {long}, quantity {int}")
+    public void iSubmitAnOrderV2Asynchronously(Long userId, Long productId, int quantity) {
+        String requestBody = String.format("""
+                {
+                    "userId": %d,
+                    "productId": %d,
+                    "quantity": %d,
+                    "shippingAddress": "123 Test Street"
+                }
+                """, userId, productId, quantity);
+
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(requestBody)
+                .when()
+                .post("/api/v2/orders/async");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I wait for the async order to complete")
+    public void iWaitForTheAsyncOrderToComplete() throws InterruptedException {
+        String trackingId = testContext.getResponse().jsonPath().getString("trackingId");
+        Response response = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            response = given()
+                    .when()
+                    .get("/api/v2/orders/async/" + trackingId);
+            if (!"QUEUED".equals(response.jsonPath().getString("state"))) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        testContext.setResponse(response);
+    }
+
+    @When("I request the async order status for tracking id {string}")
+    public void iRequestTheAsyncOrderStatus(String trackingId) {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/async/" + trackingId);
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the async ingestion metrics")
+    public void iRequestTheAsyncIngestionMetrics() {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/async/metrics");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I create an order v2 for userId {long} with lines:")
+    public void iCreateAnOrderV2WithLines(Long userId, List<Map<String, String>> lines) {
+        List<Map<String, Object>> requestLines = lines.stream()
+                .<Map<String, Object>>map(line -> Map.of(
+                        "productId", Long.parseLong(line.get("productId")),
+                        "quantity", Integer.parseInt(line.get("quantity"))))
+                .toList();
+
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userId", userId, "shippingAddress", "123 Test Street", "lines", requestLines))
+                .when()
+                .post("/api/v2/orders");
+
+        testContext.setResponse(response);
+        if (response.getStatusCode() == 201) {
+            testContext.setCreatedOrderId(response.jsonPath().getLong("id"));
+            testContext.getCreatedOrderIds().add(response.jsonPath().getLong("id"));
         }
     }
 
+    @When("I create an order v2 with both productId {long} and lines")
+    public void iCreateAnOrderV2WithBothProductIdAndLines(Long productId) {
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userId", 1, "productId", productId, "quantity", 1,
+                        "lines", List.of(Map.of("productId", productId, "quantity", 1))))
+                .when()
+                .post("/api/v2/orders");
+
+        testContext.setResponse(response);
+    }
+
     @When("I request to get orders by userId {long}")
     public void iRequestToGetOrdersByUserId(Long userId) {
         Response response = given()
@@ -47,6 +256,196 @@ public class OrderV2Steps {
         testContext.setResponse(response);
     }
 
+    @When("I request the first page of orders v2 for userId {long} with size {int} and count")
+    public void iRequestTheFirstPageOfOrdersV2ForUser(Long userId, int size) {
+        Response response = given()
+                .queryParam("size", size)
+                .queryParam("includeCount", true)
+                .when()
+                .get("/api/v2/orders/user/" + userId + "/page");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the first page of orders v2 for productId {long} with size {int} and count")
+    public void iRequestTheFirstPageOfOrdersV2ForProduct(Long productId, int size) {
+        Response response = given()
+                .queryParam("size", size)
+                .queryParam("includeCount", true)
+                .when()
+                .get("/api/v2/orders/product/" + productId);
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the next page of orders v2 for productId {long} with size {int}")
+    public void iRequestTheNextPageOfOrdersV2ForProduct(Long productId, int size) {
+        String cursor = testContext.getResponse().jsonPath().getString("nextCursor");
+        Response response = given()
+                .queryParam("size", size)
+                .queryParam("cursor", cursor)
+                .when()
+                .get("/api/v2/orders/product/" + productId);
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the units sold of productId {long}")
+    public void iRequestTheUnitsSoldOfProduct(Long productId) {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/product/" + productId + "/units-sold");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the next page of orders v2 for userId {long} with size {int}")
+    public void iRequestTheNextPageOfOrdersV2ForUser(Long userId, int size) {
+        String cursor = testContext.getResponse().jsonPath().getString("nextCursor");
+        Response response = given()
+                .queryParam("size", size)
+                .queryParam("cursor", cursor)
+                .when()
+                .get("/api/v2/orders/user/" + userId + "/page");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request to get orders by userId {long} including archived")
+    public void iRequestToGetOrdersByUserIdIncludingArchived(Long userId) {
+        Response response = given()
+                .queryParam("includeArchived", true)
+                .when()
+                .get("/api/v2/orders/user/" + userId);
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the created order v2 including archived")
+    public void iRequestTheCreatedOrderV2IncludingArchived() {
+        Response response = given()
+                .queryParam("includeArchived", true)
+                .when()
+                .get("/api/v2/orders/" + testContext.getCreatedOrderId());
+
+        testContext.setResponse(response);
+    }
+
+    @When("the finished orders are archived")
+    public void theFinishedOrdersAreArchived() {
+        orderArchiveService.archiveFinishedBefore(LocalDateTime.now().plusSeconds(1));
+    }
+
+    @When("the created order was placed {int} days ago")
+    public void theCreatedOrderWasPlacedDaysAgo(int days) {
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(days)), testContext.getCreatedOrderId());
+    }
+
+    @When("the stale pending orders are expired")
+    public void theStalePendingOrdersAreExpired() {
+        // Reload so the timers pick up the backdated creation times
+        pendingOrderExpiryService.reload();
+        pendingOrderExpiryService.expireDue();
+    }
+
+    @When("the order rollups are flushed")
+    public void theOrderRollupsAreFlushed() {
+        orderRollupService.flush();
+    }
+
+    @When("I request today's order analytics grouped by {string}")
+    public void iRequestTodaysOrderAnalyticsGroupedBy(String groupBy) {
+        Response response = given()
+                .queryParam("from", LocalDate.now().toString())
+                .queryParam("to", LocalDate.now().toString())
+                .queryParam("groupBy", groupBy)
+                .when()
+                .get("/api/v2/orders/analytics");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I rebuild the order analytics")
+    public void iRebuildTheOrderAnalytics() {
+        Response response = given()
+                .when()
+                .post("/api/v2/orders/analytics/rebuild");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the enriched order history for userId {long}")
+    public void iRequestTheEnrichedOrderHistoryForUserId(Long userId) {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/user/" + userId + "/enriched");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the enriched order history for userId {long} with size {int}")
+    public void iRequestTheEnrichedOrderHistoryForUserIdWithSize(Long userId, int size) {
+        Response response = given()
+                .queryParam("size", size)
+                .when()
+                .get("/api/v2/orders/user/" + userId + "/enriched");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the next page of the enriched order history for userId {long} with size {int}")
+    public void iRequestTheNextPageOfTheEnrichedOrderHistory(Long userId, int size) {
+        String cursor = testContext.getResponse().jsonPath().getString("nextCursor");
+        Response response = given()
+                .queryParam("size", size)
+                .queryParam("cursor", cursor)
+                .when()
+                .get("/api/v2/orders/user/" + userId + "/enriched");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the order summary for userId {long}")
+    public void iRequestTheOrderSummaryForUserId(Long userId) {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/user/" + userId + "/summary");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I rebuild the user order summaries")
+    public void iRebuildTheUserOrderSummaries() {
+        Response response = given()
+                .when()
+                .post("/api/v2/orders/user-summaries/rebuild");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the trending products over {string} with k {int}")
+    public void iRequestTheTrendingProducts(String window, int k) {
+        Response response = given()
+                .queryParam("window", window)
+                .queryParam("k", k)
+                .when()
+                .get("/api/v2/orders/trending");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I search orders v2 with:")
+    public void iSearchOrdersV2With(Map<String, String> criteria) {
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(criteria)
+                .when()
+                .post("/api/v2/orders/search");
+
+        testContext.setResponse(response);
+    }
+
     @When("I request to get orders by status {string}")
     public void iRequestToGetOrdersByStatus(String status) {
         Response response = given()
@@ -56,6 +455,49 @@ public class OrderV2Steps {
         testContext.setResponse(response);
     }
 
+    @When("I request all orders v2 sorted by {string}")
+    public void iRequestAllOrdersV2SortedBy(String sortBy) {
+        Response response = given()
+                .queryParam("sortBy", sortBy)
+                .when()
+                .get("/api/v2/orders");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the first page of orders v2 in status {string} with size {int} and count")
+    public void iRequestTheFirstPageOfOrdersV2InStatus(String status, int size) {
+        Response response = given()
+                .queryParam("size", size)
+                .queryParam("includeCount", true)
+                .when()
+                .get("/api/v2/orders/status/" + status + "/page");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the order status counts")
+    public void iRequestTheOrderStatusCounts() {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/status-counts");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I move all created orders and order {long} to status {string} in bulk")
+    public void iMoveAllCreatedOrdersToStatusInBulk(Long extraOrderId, String status) {
+        List<Long> orderIds = new ArrayList<>(testContext.getCreatedOrderIds());
+        orderIds.add(extraOrderId);
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("orderIds", orderIds, "status", status))
+                .when()
+                .post("/api/v2/orders/status-transitions");
+
+        testContext.setResponse(response);
+    }
+
     @When("I update order status to {string}")
     public void iUpdateOrderStatusTo(String status) {
         Response response = given()
@@ -65,4 +507,147 @@ public class OrderV2Steps {
 
         testContext.setResponse(response);
     }
+
+    @When("I read the order changes as consumer {string}")
+    public void iReadTheOrderChangesAsConsumer(String consumer) {
+        Response response = given()
+                .queryParam("consumer", consumer)
+                .when()
+                .get("/api/v2/orders/changes");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I acknowledge the order changes read as consumer {string}")
+    public void iAcknowledgeTheOrderChangesRead(String consumer) {
+        long nextOffset = testContext.getResponse().jsonPath().getLong("nextOffset");
+        Response response = given()
+                .queryParam("offset", nextOffset)
+                .when()
+                .post("/api/v2/orders/changes/" + consumer + "/ack");
+
+        testContext.setResponse(response);
+    }
+
+    @When("the order changes are relayed")
+    public void theOrderChangesAreRelayed() {
+        outboxRelay.relay();
+    }
+
+    @When("the outbox row of the created order's {string} change is removed as if it rolled back")
+    public void theOutboxRowIsRemoved(String type) {
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM order_outbox WHERE order_id = ? AND event_type = ?",
+                Long.class, testContext.getCreatedOrderId(), type);
+        jdbcTemplate.update("DELETE FROM order_outbox WHERE id = ?", id);
+        outboxGapOffset = id - 1;
+    }
+
+    @Then("a change feed reader with a gap timeout of {long} ms should read {int} changes past the gap")
+    public void aReaderShouldReadChangesPastTheGap(long gapTimeoutMs, int expected) {
+        OrderOutboxService reader = new OrderOutboxService(jdbcTemplate, objectMapper, gapTimeoutMs, 168);
+        assertEquals(expected, reader.readAfter(outboxGapOffset, 10).size());
+    }
+
+    @When("I request the outbox relay status")
+    public void iRequestTheOutboxRelayStatus() {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/changes/relay");
+
+        testContext.setResponse(response);
+    }
+
+    @Then("the order change webhook should have received a {string} change for the created order")
+    public void theWebhookShouldHaveReceivedAChange(String type) {
+        long orderId = testContext.getCreatedOrderId();
+        assertTrue(webhookStub.getReceived().stream().anyMatch(change -> type.equals(change.get("type"))
+                        && ((Number) change.get("orderId")).longValue() == orderId),
+                "No " + type + " change for order " + orderId + " reached the webhook");
+    }
+
+    @When("I create orders v2 in a batch with body:")
+    public void iCreateOrdersV2InABatch(String body) {
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(body)
+                .when()
+                .post("/api/v2/orders/batch");
+
+        testContext.setResponse(response);
+        if (response.getStatusCode() == 200) {
+            testContext.getCreatedOrderIds().addAll(response.jsonPath().getList("results.orderId", Long.class)
+                    .stream().filter(id -> id != null).toList());
+        }
+    }
+
+    @When("I request the event history of the created order")
+    public void iRequestTheEventHistoryOfTheCreatedOrder() {
+        iRequestTheEventHistoryOfOrder(testContext.getCreatedOrderId());
+    }
+
+    @When("I request the event history of order {long}")
+    public void iRequestTheEventHistoryOfOrder(Long orderId) {
+        Response response = given()
+                .when()
+                .get("/api/v2/orders/" + orderId + "/history");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I request the created order as of event {int} of its history")
+    public void iRequestTheCreatedOrderAsOfEvent(int eventNumber) {
+        String occurredAt = testContext.getResponse().jsonPath().getString("[" + (eventNumber - 1) + "].occurredAt");
+        Response response = given()
+                .queryParam("at", occurredAt)
+                .when()
+                .get("/api/v2/orders/" + testContext.getCreatedOrderId() + "/as-of");
+
+        testContext.setResponse(response);
+    }
+
+    @When("I create an order v2 with userId {long} shipping to {string}")
+    public void iCreateAnOrderV2ShippingTo(Long userId, String shippingAddress) {
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userId", userId, "productId", 100, "quantity", 1, "shippingAddress", shippingAddress))
+                .when()
+                .post("/api/v2/orders");
+
+        testContext.setResponse(response);
+        if (response.getStatusCode() == 201) {
+            testContext.setCreatedOrderId(response.jsonPath().getLong("id"));
+            testContext.getCreatedOrderIds().add(response.jsonPath().getLong("id"));
+        }
+    }
+
+    @When("I update the order v2 with userId {long}, productId {long}, quantity {int}, shipping to {string} with notes {string}")
+    public void iUpdateTheOrderV2ShippingToWithNotes(Long userId, Long productId, int quantity, String shippingAddress,
+                                                     String notes) {
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userId", userId, "productId", productId, "quantity", quantity,
+                        "shippingAddress", shippingAddress, "notes", notes))
+                .when()
+                .put("/api/v2/orders/" + testContext.getCreatedOrderId());
+
+        testContext.setResponse(response);
+    }
+
+    @Then("the created orders should share {int} stored shipping address(es)")
+    public void theCreatedOrdersShouldShareStoredShippingAddresses(int expected) {
+        String ids = testContext.getCreatedOrderIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+        Integer distinct = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT shipping_address_id) FROM orders WHERE id IN (" + ids + ")", Integer.class);
+        assertEquals(expected, distinct);
+    }
+
+    @Then("looking up the prices of {int} distinct products should return {int} prices")
+    public void lookingUpThePricesOfDistinctProducts(int products, int expected) {
+        // Ids above the range other scenarios use, so none are served from the price cache
+        List<Long> productIds = new ArrayList<>();
+        for (long id = 0; id < products; id++) {
+            productIds.add(100_000 + id);
+        }
+        assertEquals(expected, orderPricingService.unitPrices(productIds).size());
+    }
 }
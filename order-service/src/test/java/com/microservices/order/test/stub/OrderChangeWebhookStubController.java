@@ -0,0 +1,29 @@
+package com.microservices.order.test.stub;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Receiving end of the outbox relay's webhook sink; keeps every change it was sent
+@RestController
+@RequestMapping("/test-stubs/order-change-webhook")
+public class OrderChangeWebhookStubController {
+
+    private final List<Map<String, Object>> received = new CopyOnWriteArrayList<>();
+
+    @PostMapping
+    public ResponseEntity<Void> receive(@RequestBody List<Map<String, Object>> changes) {
+        received.addAll(changes);
+        return ResponseEntity.ok().build();
+    }
+
+    public List<Map<String, Object>> getReceived() {
+        return received;
+    }
+}
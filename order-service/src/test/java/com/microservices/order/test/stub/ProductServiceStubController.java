@@ -0,0 +1,46 @@
+package com.microservices.order.test.stub;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Stands in for product-service's batch lookup: every product costs 49.99, product 404 does not
+// exist, product 410 is inactive, a lookup including product 503 gets a service-unavailable
+// response and, like the real endpoint, more than 500 ids are a bad request
+@RestController
+@RequestMapping("/test-stubs/product-service/api/v2/products")
+public class ProductServiceStubController {
+
+    public static final BigDecimal UNIT_PRICE = new BigDecimal("49.99");
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<Map<String, Object>>> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > 500) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ids.contains(503L)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(ids.stream()
+                .filter(id -> id != 404L)
+                .map(id -> {
+                    Map<String, Object> product = new LinkedHashMap<>();
+                    product.put("id", id);
+                    product.put("name", "Stub product " + id);
+                    product.put("price", UNIT_PRICE);
+                    product.put("active", id != 410L);
+                    product.put("version", 0);
+                    return product;
+                })
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.microservices.order.test.stub;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Stands in for user-service's lookup by id: user 404 does not exist and user 503 gets a
+// service-unavailable response
+@RestController
+@RequestMapping("/test-stubs/user-service/api/v2/users")
+public class UserServiceStubController {
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getUserById(@PathVariable Long id) {
+        if (id == 404L) {
+            return ResponseEntity.notFound().build();
+        }
+        if (id == 503L) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", id);
+        user.put("username", "stub-user-" + id);
+        user.put("firstName", "Stub");
+        user.put("lastName", "User " + id);
+        user.put("active", true);
+        return ResponseEntity.ok(user);
+    }
+}
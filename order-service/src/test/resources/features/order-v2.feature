@@ -15,21 +15,669 @@ Feature: Order Management API v2
     And the response field "status" should be "PENDING"
     And the response should contain field "notes"
 
+  @create @pricing
+  Scenario: Price a new order from product-service
+    When I create an order v2 with userId 1, productId 100, quantity 2 and no total price
+    Then the response status code should be 201
+    And the response amount "totalPrice" should be "99.98"
+
+  @create @pricing
+  Scenario: Ignore a client-supplied total price
+    When I create an order v2 with userId 1, productId 100, quantity 3, totalPrice 1.00, notes "Cheap order"
+    Then the response status code should be 201
+    And the response amount "totalPrice" should be "149.97"
+
+  @create @pricing @negative
+  Scenario: Reject an order for an unknown product
+    When I create an order v2 with userId 1, productId 404, quantity 1 and no total price
+    Then the response status code should be 400
+
   @filter
   Scenario: Get orders by user ID
     When I create an order v2 with userId 1, productId 100, quantity 2, totalPrice 199.99, notes "User order"
     And I request to get orders by userId 1
     Then the response status code should be 200
 
+  @filter @pagination
+  Scenario: Page through a user's orders with a cursor
+    When I create an order v2 with userId 7, productId 100, quantity 1, totalPrice 49.99, notes "First"
+    And I create an order v2 with userId 7, productId 100, quantity 1, totalPrice 49.99, notes "Second"
+    And I create an order v2 with userId 7, productId 100, quantity 1, totalPrice 49.99, notes "Third"
+    And I request the first page of orders v2 for userId 7 with size 2 and count
+    Then the response status code should be 200
+    And the response list "content" should have 2 items
+    And the response amount "totalElements" should be "3"
+    And the response should contain field "nextCursor"
+    When I request the next page of orders v2 for userId 7 with size 2
+    Then the response status code should be 200
+    And the response list "content" should have 1 items
+    And the response field "content[0].notes" should be "First"
+
   @filter
   Scenario: Get orders by status
     When I create an order v2 with userId 1, productId 100, quantity 2, totalPrice 199.99, notes "Pending order"
     And I request to get orders by status "PENDING"
     Then the response status code should be 200
 
+  @filter @pagination
+  Scenario: Page through orders in a status
+    When I create an order v2 with userId 1, productId 100, quantity 1, totalPrice 49.99, notes "Pending one"
+    And I create an order v2 with userId 2, productId 100, quantity 1, totalPrice 49.99, notes "Pending two"
+    And I request the first page of orders v2 in status "PENDING" with size 1 and count
+    Then the response status code should be 200
+    And the response list "content" should have 1 items
+    And the response amount "totalElements" should be "2"
+    And the response should contain field "nextCursor"
+
+  @filter @pagination
+  Scenario: The status in the path is matched regardless of case
+    When I create an order v2 with userId 1, productId 100, quantity 1, totalPrice 49.99, notes "Lower case status"
+    And I request the first page of orders v2 in status "pending" with size 5 and count
+    Then the response status code should be 200
+    And the response list "content" should have 1 items
+    And the response amount "totalElements" should be "1"
+
+  @filter @negative
+  Scenario: Reject an unknown status in the path
+    When I request to get orders by status "SHIPED"
+    Then the response status code should be 400
+    When I request the first page of orders v2 in status "SHIPED" with size 5 and count
+    Then the response status code should be 400
+
+  @status @counts
+  Scenario: Count orders per status
+    When I create an order v2 with userId 1, productId 100, quantity 1, totalPrice 49.99, notes "Counted order"
+    And I create an order v2 with userId 1, productId 100, quantity 1, totalPrice 49.99, notes "Shipped order"
+    And I update order status to "CONFIRMED"
+    And I update order status to "SHIPPED"
+    And I request the order status counts
+    Then the response status code should be 200
+    And the response amount "PENDING" should be "1"
+    And the response amount "SHIPPED" should be "1"
+
+  @list @sorting
+  Scenario: List orders sorted by an index-backed field
+    When I create an order v2 with userId 1, productId 100, quantity 2, totalPrice 199.99, notes "Sorted order"
+    And I request all orders v2 sorted by "totalPrice"
+    Then the response status code should be 200
+
+  @list @sorting @negative
+  Scenario: Reject sorting by a field without an index
+    When I request all orders v2 sorted by "notes"
+    Then the response status code should be 400
+
   @status
   Scenario: Update order status
     When I create an order v2 with userId 1, productId 100, quantity 2, totalPrice 199.99, notes "Status update test"
     And I update order status to "CONFIRMED"
     Then the response status code should be 200
     And the response field "status" should be "CONFIRMED"
+
+  @status @negative
+  Scenario: Reject a status transition the state machine does not allow
+    When I create an order v2 with userId 1, productId 100, quantity 2, totalPrice 199.99, notes "Skip ahead"
+    And I update order status to "DELIVERED"
+    Then the response status code should be 409
+
+  @status @negative
+  Scenario: Reject an unknown order status
+    When I create an order v2 with userId 1, productId 100, quantity 2, totalPrice 199.99, notes "Unknown status"
+    And I update order status to "TELEPORTED"
+    Then the response status code should be 400
+
+  @status @bulk
+  Scenario: Move many orders to a status in one call
+    When I create an order v2 with userId 1, productId 100, quantity 1, totalPrice 49.99, notes "Bulk one"
+    And I create an order v2 with userId 2, productId 100, quantity 1, totalPrice 49.99, notes "Bulk two"
+    And I move all created orders and order 999999 to status "CONFIRMED" in bulk
+    Then the response status code should be 200
+    And the response amount "transitioned" should be "2"
+    And the response field "results[0].outcome" should be "TRANSITIONED"
+    And the response field "results[2].outcome" should be "NOT_FOUND"
+    When I move all created orders and order 999999 to status "DELIVERED" in bulk
+    Then the response status code should be 200
+    And the response amount "transitioned" should be "0"
+    And the response field "results[0].outcome" should be "INVALID_TRANSITION"
+
+  @create @idempotency
+  Scenario: Retrying a create with the same Idempotency-Key returns the original order
+    When I create an order v2 with idempotency key "retry-key-001" and quantity 2
+    Then the response status code should be 201
+    And the response header "Idempotent-Replayed" should be "false"
+    When I create an order v2 with idempotency key "retry-key-001" and quantity 2
+    Then the response status code should be 201
+    And the response header "Idempotent-Replayed" should be "true"
+    And all created orders should have the same id
+    When I request to get orders by userId 1
+    Then the response status code should be 200
+    And the response list "$" should have 1 items
+
+  @create @idempotency @archive
+  Scenario: Retrying a create whose order has since been archived still returns the original order
+    When I create an order v2 with idempotency key "retry-key-archived" and quantity 1
+    Then the response status code should be 201
+    When I update order status to "CANCELLED"
+    And the finished orders are archived
+    And I create an order v2 with idempotency key "retry-key-archived" and quantity 1
+    Then the response status code should be 201
+    And the response header "Idempotent-Replayed" should be "true"
+    And the response field "status" should be "CANCELLED"
+    And all created orders should have the same id
+
+  @create @idempotency
+  Scenario: An Idempotency-Key reused after its TTL creates a new order
+    When the Idempotency-Key "retry-key-expired" was used for another order and has expired
+    And I create an order v2 with idempotency key "retry-key-expired" and quantity 1
+    Then the response status code should be 201
+    And the response header "Idempotent-Replayed" should be "false"
+    When I create an order v2 with idempotency key "retry-key-expired" and quantity 1
+    Then the response status code should be 201
+    And the response header "Idempotent-Replayed" should be "true"
+    And all created orders should have the same id
+
+  @create @idempotency @negative
+  Scenario: Reject an Idempotency-Key reused for a different order
+    When I create an order v2 with idempotency key "retry-key-002" and quantity 2
+    Then the response status code should be 201
+    When I create an order v2 with idempotency key "retry-key-002" and quantity 5
+    Then the response status code should be 422
+
+  @create @async
+  Scenario: Create an order asynchronously and track it
+    When I submit an order v2 asynchronously with userId 7, productId 100, quantity 2
+    Then the response status code should be 202
+    And the response field "state" should be "QUEUED"
+    When I wait for the async order to complete
+    Then the response status code should be 200
+    And the response field "state" should be "CREATED"
+    And the response should contain field "orderId"
+    When I request to get orders by userId 7
+    Then the response list "$" should have 1 items
+    And the response amount "[0].totalPrice" should be "99.98"
+    When I request the async ingestion metrics
+    Then the response status code should be 200
+    And the response should contain field "queueDepth"
+    And the response should contain field "averageCommitLatencyMs"
+
+  @create @async @negative
+  Scenario: An async order for an unknown product is reported as failed
+    When I submit an order v2 asynchronously with userId 8, productId 404, quantity 1
+    And I wait for the async order to complete
+    Then the response field "state" should be "FAILED"
+    And the response should contain field "error"
+
+  @async @negative
+  Scenario: Unknown async tracking id
+    When I request the async order status for tracking id "no-such-tracking-id"
+    Then the response status code should be 404
+
+  @archive
+  Scenario: Finished orders are archived and only read back when asked
+    When I create an order v2 with userId 9, productId 100, quantity 1, totalPrice 49.99, notes "Still open"
+    And I create an order v2 with userId 9, productId 100, quantity 1, totalPrice 49.99, notes "Cancelled early"
+    And I update order status to "CANCELLED"
+    And the finished orders are archived
+    And I request to get orders by userId 9
+    Then the response status code should be 200
+    And the response list "$" should have 1 items
+    And the response field "[0].status" should be "PENDING"
+    When I request to get orders by userId 9 including archived
+    Then the response list "$" should have 2 items
+    When I request the created order v2 including archived
+    Then the response status code should be 200
+    And the response field "status" should be "CANCELLED"
+    When I request the order status counts
+    Then the response amount "PENDING" should be "1"
+    And the response should not contain field "CANCELLED"
+
+  @create @lines
+  Scenario: Create an order with several lines
+    When I create an order v2 for userId 11 with lines:
+      | productId | quantity |
+      | 100       | 2        |
+      | 101       | 1        |
+    Then the response status code should be 201
+    And the response list "lines" should have 2 items
+    And the response amount "totalPrice" should be "149.97"
+    And the response amount "quantity" should be "3"
+    And the response amount "lines[0].lineTotal" should be "99.98"
+    When I request to get order by ID
+    Then the response status code should be 200
+    And the response list "lines" should have 2 items
+    And the response amount "lines[1].productId" should be "101"
+    When I request to get orders by userId 11
+    Then the response list "[0].lines" should have 2 items
+
+  @create @lines @negative
+  Scenario: Reject an order with both a single product and lines
+    When I create an order v2 with both productId 100 and lines
+    Then the response status code should be 400
+
+  @analytics
+  Scenario: Order analytics per status, day and product
+    When I create an order v2 with userId 12, productId 100, quantity 2 and no total price
+    And I update order status to "CONFIRMED"
+    And I create an order v2 for userId 12 with lines:
+      | productId | quantity |
+      | 100       | 1        |
+      | 101       | 2        |
+    And the order rollups are flushed
+    And I request today's order analytics grouped by "status"
+    Then the response status code should be 200
+    And the response list "rows" should have 2 items
+    And the response amount "totalOrders" should be "2"
+    And the response amount "totalUnits" should be "5"
+    And the response amount "totalRevenue" should be "249.95"
+    When I request today's order analytics grouped by "product"
+    Then the response list "rows" should have 2 items
+    And the response field "rows[0].key" should be "100"
+    And the response amount "rows[0].revenue" should be "149.97"
+    And the response amount "rows[1].units" should be "2"
+    When I rebuild the order analytics
+    Then the response status code should be 200
+    When I request today's order analytics grouped by "day"
+    Then the response list "rows" should have 1 items
+    And the response amount "totalOrders" should be "2"
+    And the response amount "totalRevenue" should be "249.95"
+
+  @analytics @negative
+  Scenario: Reject an unknown analytics grouping
+    When I request today's order analytics grouped by "customer"
+    Then the response status code should be 400
+
+  @trending
+  Scenario: Most-ordered products over the last hour
+    When I create an order v2 for userId 13 with lines:
+      | productId | quantity |
+      | 777       | 1000     |
+      | 100       | 1        |
+    And I create an order v2 with userId 13, productId 777, quantity 5 and no total price
+    And I request the trending products over "1h" with k 5
+    Then the response status code should be 200
+    And the response amount "products[0].productId" should be "777"
+    And the response amount "products[0].units" should be "1005"
+
+  @trending @negative
+  Scenario: Reject a trending window longer than a day
+    When I request the trending products over "3d" with k 5
+    Then the response status code should be 400
+
+  @history
+  Scenario: Order history with user and product names
+    When I create an order v2 for userId 14 with lines:
+      | productId | quantity |
+      | 100       | 1        |
+      | 101       | 2        |
+    And I create an order v2 with userId 14, productId 100, quantity 1 and no total price
+    And I request the enriched order history for userId 14
+    Then the response status code should be 200
+    And the response list "orders" should have 2 items
+    And the response field "user.username" should be "stub-user-14"
+    And the response field "user.fullName" should be "Stub User 14"
+    And the response field "products.'101'.name" should be "Stub product 101"
+    And the response list "unavailable" should have 0 items
+
+  @history
+  Scenario: Order history is served without user details when user-service fails
+    When I create an order v2 with userId 503, productId 100, quantity 1 and no total price
+    And I request the enriched order history for userId 503
+    Then the response status code should be 200
+    And the response list "orders" should have 1 items
+    And the response list "unavailable" should have 1 items
+    And the response field "unavailable[0]" should be "user-service"
+    And the response field "products.'100'.name" should be "Stub product 100"
+
+  @history
+  Scenario: Order history is served one page at a time with only that page's products
+    When I create an order v2 with userId 37, productId 100, quantity 1 and no total price
+    And I create an order v2 with userId 37, productId 101, quantity 1 and no total price
+    And I create an order v2 with userId 37, productId 102, quantity 1 and no total price
+    And I request the enriched order history for userId 37 with size 2
+    Then the response status code should be 200
+    And the response list "orders" should have 2 items
+    And the response flag "hasNext" should be "true"
+    And the response field "products.'102'.name" should be "Stub product 102"
+    And the response should not contain field "products.'100'"
+    When I request the next page of the enriched order history for userId 37 with size 2
+    Then the response status code should be 200
+    And the response list "orders" should have 1 items
+    And the response flag "hasNext" should be "false"
+    And the response field "products.'100'.name" should be "Stub product 100"
+    And the response field "user.username" should be "stub-user-37"
+
+  @summary
+  Scenario: Per-user order summary follows creates, cancellations and deletes
+    When I create an order v2 with userId 16, productId 100, quantity 2 and no total price
+    And I create an order v2 with userId 16, productId 100, quantity 1 and no total price
+    And I update order status to "CANCELLED"
+    And I create an order v2 with userId 16, productId 100, quantity 3 and no total price
+    And I delete the order
+    And I request the order summary for userId 16
+    Then the response status code should be 200
+    And the response amount "orderCount" should be "2"
+    And the response amount "cancelledCount" should be "1"
+    And the response amount "totalSpent" should be "99.98"
+    And the response should contain field "lastOrderAt"
+    When I rebuild the user order summaries
+    Then the response status code should be 200
+    When I request the order summary for userId 16
+    Then the response amount "orderCount" should be "2"
+    And the response amount "totalSpent" should be "99.98"
+
+  @summary
+  Scenario: Order summary of a user without orders
+    When I request the order summary for userId 99999
+    Then the response status code should be 200
+    And the response amount "orderCount" should be "0"
+    And the response amount "totalSpent" should be "0"
+
+  @expiry
+  Scenario: A stale pending order is cancelled
+    When I create an order v2 with userId 17, productId 100, quantity 1 and no total price
+    And the created order was placed 2 days ago
+    And the stale pending orders are expired
+    And I request to get order by ID
+    Then the response status code should be 200
+    And the response field "status" should be "CANCELLED"
+
+  @expiry
+  Scenario: A confirmed order is not cancelled by the expiry
+    When I create an order v2 with userId 17, productId 100, quantity 1 and no total price
+    And I update order status to "CONFIRMED"
+    And the created order was placed 2 days ago
+    And the stale pending orders are expired
+    And I request to get order by ID
+    Then the response field "status" should be "CONFIRMED"
+
+  @rate-limit @negative
+  Scenario: Orders over the per-user rate limit are rejected
+    When I create 20 orders v2 for userId 18
+    Then the response status code should be 201
+    When I create an order v2 with userId 18, productId 100, quantity 1 and no total price
+    Then the response status code should be 429
+    And the response should contain field "message"
+    When I create an order v2 with userId 19, productId 100, quantity 1 and no total price
+    Then the response status code should be 201
+    When I request the order rate limit metrics
+    Then the response status code should be 200
+    And the response amount "maxOrders" should be "20"
+
+  @rate-limit
+  Scenario: An order given back to the rate limiter can be placed again
+    When user 35 uses up the order rate limit and one order is given back
+    And I create an order v2 with userId 35, productId 100, quantity 1 and no total price
+    Then the response status code should be 201
+    When I create an order v2 with userId 35, productId 100, quantity 1 and no total price
+    Then the response status code should be 429
+
+  @rate-limit
+  Scenario: Orders that fail to be created do not count against the rate limit
+    When I create 20 orders v2 for userId 36 and productId 503
+    Then the response status code should be 503
+    When I create 5 orders v2 for userId 36 and productId 404
+    Then the response status code should be 400
+    When I create an order v2 with userId 36, productId 100, quantity 1 and no total price
+    Then the response status code should be 201
+    When I create orders v2 in a batch with body:
+      """
+      [
+        {"userId": 36, "productId": 404, "quantity": 1},
+        {"userId": 36, "productId": 100, "quantity": 1}
+      ]
+      """
+    Then the response status code should be 200
+    And the response amount "created" should be "1"
+    And the response amount "rejected" should be "1"
+
+  @search
+  Scenario: Search orders by product, status and total price
+    When I create an order v2 with userId 20, productId 555, quantity 12 and no total price
+    And I update order status to "CONFIRMED"
+    And I update order status to "SHIPPED"
+    And I create an order v2 with userId 20, productId 555, quantity 2 and no total price
+    And I update order status to "CONFIRMED"
+    And I update order status to "SHIPPED"
+    And I create an order v2 for userId 20 with lines:
+      | productId | quantity |
+      | 100       | 1        |
+      | 555       | 11       |
+    And I search orders v2 with:
+      | productId     | 555     |
+      | status        | SHIPPED |
+      | minTotalPrice | 500     |
+    Then the response status code should be 200
+    And the response list "content" should have 1 items
+    And the response amount "content[0].totalPrice" should be "599.88"
+    And the response amount "totalElements" should be "1"
+    When I search orders v2 with:
+      | productId    | 555   |
+      | size         | 2     |
+      | includeCount | false |
+    Then the response list "content" should have 2 items
+    And the response flag "hasNext" should be "true"
+    When I search orders v2 with:
+      | userId        | 20      |
+      | maxTotalPrice | 100     |
+    Then the response list "content" should have 1 items
+
+  @search @negative
+  Scenario: Reject a search with an unknown status
+    When I search orders v2 with:
+      | status | LOST |
+    Then the response status code should be 400
+
+  @outbox
+  Scenario: Read and acknowledge the order change feed
+    When I create an order v2 with userId 21, productId 100, quantity 1 and no total price
+    And I update order status to "CONFIRMED"
+    And I read the order changes as consumer "it-feed"
+    Then the response status code should be 200
+    And the response list "changes" should have 2 items
+    And the response field "changes[0].type" should be "CREATED"
+    And the response field "changes[1].type" should be "STATUS_CHANGED"
+    And the response field "changes[1].data.before.status" should be "PENDING"
+    And the response field "changes[1].data.after.status" should be "CONFIRMED"
+    When I acknowledge the order changes read as consumer "it-feed"
+    Then the response status code should be 200
+    When I read the order changes as consumer "it-feed"
+    Then the response list "changes" should have 0 items
+    When I delete the order
+    And I read the order changes as consumer "it-feed"
+    Then the response list "changes" should have 1 items
+    And the response field "changes[0].type" should be "DELETED"
+
+  @outbox
+  Scenario: Relay order changes to the webhook sink
+    When I create an order v2 with userId 22, productId 100, quantity 1 and no total price
+    And the order changes are relayed
+    Then the order change webhook should have received a "CREATED" change for the created order
+    When I request the outbox relay status
+    Then the response status code should be 200
+    And the response should contain field "[0].sink"
+
+  @outbox
+  Scenario: A change feed read waits at an id gap until it times out
+    When I create an order v2 with userId 33, productId 100, quantity 1 and no total price
+    And I update order status to "CONFIRMED"
+    And the outbox row of the created order's "CREATED" change is removed as if it rolled back
+    Then a change feed reader with a gap timeout of 60000 ms should read 0 changes past the gap
+    And a change feed reader with a gap timeout of 0 ms should read 1 changes past the gap
+
+  @outbox @negative
+  Scenario: Reject a change feed consumer with an invalid name
+    When I read the order changes as consumer "bad consumer!"
+    Then the response status code should be 400
+
+  @batch
+  Scenario: Create many orders in one batch with per-order results
+    When I create orders v2 in a batch with body:
+      """
+      [
+        {"userId": 23, "productId": 100, "quantity": 2, "shippingAddress": "1 Batch Road"},
+        {"productId": 100, "quantity": 1},
+        {"userId": 23, "productId": 404, "quantity": 1},
+        {"userId": 23, "lines": [{"productId": 100, "quantity": 1}, {"productId": 101, "quantity": 3}]},
+        {"userId": "not-a-number", "productId": 100, "quantity": 1}
+      ]
+      """
+    Then the response status code should be 200
+    And the response amount "received" should be "5"
+    And the response amount "created" should be "2"
+    And the response amount "rejected" should be "3"
+    And the response field "results[0].outcome" should be "CREATED"
+    And the response field "results[1].outcome" should be "REJECTED"
+    And the response field "results[1].errors[0]" should be "User ID is required"
+    And the response field "results[2].outcome" should be "REJECTED"
+    And the response field "results[3].outcome" should be "CREATED"
+    And the response field "results[4].outcome" should be "REJECTED"
+    When I request the order summary for userId 23
+    Then the response amount "orderCount" should be "2"
+
+  @batch
+  Scenario: A batch body that breaks after a written chunk reports the orders before it
+    When I create orders v2 in a batch with body:
+      """
+      [
+        {"userId": 24, "productId": 100, "quantity": 1},
+        {"userId": 24, "productId": 100, "quantity": 1},
+        {"userId": 24, "productId": 100, "quantity": 1},
+        {"userId": 24, "productId": 100
+      """
+    Then the response status code should be 200
+    And the response amount "created" should be "3"
+    And the response should contain field "error"
+
+  @batch
+  Scenario: A product-service outage during one chunk fails only that chunk's orders
+    When I create orders v2 in a batch with body:
+      """
+      [
+        {"userId": 32, "productId": 100, "quantity": 1},
+        {"userId": 32, "productId": 100, "quantity": 1},
+        {"userId": 32, "productId": 503, "quantity": 1},
+        {"userId": 32, "productId": 100, "quantity": 1},
+        {"userId": 32, "productId": 100, "quantity": 1}
+      ]
+      """
+    Then the response status code should be 200
+    And the response amount "created" should be "3"
+    And the response amount "failed" should be "2"
+    And the response field "results[0].outcome" should be "CREATED"
+    And the response field "results[2].outcome" should be "FAILED"
+    And the response field "results[3].outcome" should be "FAILED"
+    And the response field "results[4].outcome" should be "CREATED"
+
+  @batch @negative
+  Scenario: Reject a batch body that is not a JSON array
+    When I create orders v2 in a batch with body:
+      """
+      {"userId": 25, "productId": 100, "quantity": 1}
+      """
+    Then the response status code should be 400
+
+  @product
+  Scenario: Page through the orders containing a product and sum its units sold
+    When I create an order v2 with userId 26, productId 888, quantity 5 and no total price
+    And I update order status to "CANCELLED"
+    And I create an order v2 for userId 26 with lines:
+      | productId | quantity |
+      | 100       | 1        |
+      | 888       | 2        |
+    And I create an order v2 with userId 27, productId 888, quantity 3 and no total price
+    And I create an order v2 with userId 27, productId 100, quantity 4 and no total price
+    And I request the first page of orders v2 for productId 888 with size 2 and count
+    Then the response status code should be 200
+    And the response list "content" should have 2 items
+    And the response amount "content[0].quantity" should be "3"
+    And the response amount "totalElements" should be "3"
+    And the response flag "hasNext" should be "true"
+    When I request the next page of orders v2 for productId 888 with size 2
+    Then the response list "content" should have 1 items
+    And the response field "content[0].status" should be "CANCELLED"
+    And the response flag "hasNext" should be "false"
+    When I request the units sold of productId 888
+    Then the response status code should be 200
+    And the response amount "orderCount" should be "3"
+    And the response amount "unitsSold" should be "5"
+    And the response amount "unitsByStatus.CANCELLED" should be "5"
+
+  @history
+  Scenario: Read an order's event history and its state at earlier points in time
+    When I create an order v2 with userId 28, productId 100, quantity 2 and no total price
+    And I update order status to "CONFIRMED"
+    And I update the order with quantity 4
+    And I update order status to "SHIPPED"
+    And I delete the order
+    And I request the event history of the created order
+    Then the response status code should be 200
+    And the response list "$" should have 5 items
+    And the response field "[0].type" should be "CREATED"
+    And the response amount "[0].changes.quantity" should be "2"
+    And the response field "[1].changes.status" should be "CONFIRMED"
+    And the response field "[1].type" should be "STATUS_CHANGED"
+    And the response amount "[2].changes.quantity" should be "4"
+    And the response field "[4].type" should be "DELETED"
+    When I request the created order as of event 1 of its history
+    Then the response status code should be 200
+    And the response field "state.status" should be "PENDING"
+    And the response amount "state.quantity" should be "2"
+    And the response amount "replayedEvents" should be "1"
+    When I request the event history of the created order
+    And I request the created order as of event 3 of its history
+    Then the response field "state.status" should be "CONFIRMED"
+    And the response amount "state.quantity" should be "4"
+    And the response amount "replayedEvents" should be "1"
+    When I request the event history of the created order
+    And I request the created order as of event 5 of its history
+    Then the response flag "deleted" should be "true"
+    And the response field "state.status" should be "SHIPPED"
+
+  @history
+  Scenario: Changes to only the notes or the shipping address are kept in the event history
+    When I create an order v2 with userId 34 shipping to "1 First Street"
+    And I update the order v2 with userId 34, productId 100, quantity 1, shipping to "1 First Street" with notes "leave at door"
+    Then the response status code should be 200
+    When I update the order v2 with userId 34, productId 100, quantity 1, shipping to "2 Second Street" with notes "leave at door"
+    Then the response status code should be 200
+    When I request the event history of the created order
+    Then the response list "$" should have 3 items
+    And the response field "[0].changes.shippingAddress" should be "1 First Street"
+    And the response field "[1].changes.notes" should be "leave at door"
+    And the response should not contain field "[1].changes.shippingAddress"
+    And the response should not contain field "[1].changes.quantity"
+    And the response field "[2].changes.shippingAddress" should be "2 Second Street"
+    And the response should not contain field "[2].changes.notes"
+    When I request the created order as of event 2 of its history
+    Then the response field "state.shippingAddress" should be "1 First Street"
+    And the response field "state.notes" should be "leave at door"
+    When I request the event history of the created order
+    And I request the created order as of event 3 of its history
+    Then the response field "state.shippingAddress" should be "2 Second Street"
+    And the response field "state.notes" should be "leave at door"
+
+  @history @negative
+  Scenario: Reject the history of an order that never existed
+    When I request the event history of order 999999
+    Then the response status code should be 404
+
+  @address
+  Scenario: Orders to the same shipping address share one stored address
+    When I create an order v2 with userId 29 shipping to "9 Repeat Lane"
+    And I create an order v2 with userId 29 shipping to "9 Repeat Lane"
+    And I create an order v2 with userId 30 shipping to "10 Other Street"
+    Then the created orders should share 2 stored shipping addresses
+    When I request to get order by ID
+    Then the response field "shippingAddress" should be "10 Other Street"
+    When I request to get orders by userId 29
+    Then the response list "$" should have 2 items
+    And the response field "[1].shippingAddress" should be "9 Repeat Lane"
+
+  @pricing
+  Scenario: Price lookups larger than product-service's batch limit are split
+    Then looking up the prices of 1200 distinct products should return 1200 prices
+
+  @pricing @negative
+  Scenario: An unavailable product service fails order creation with 503
+    When I create an order v2 with userId 31, productId 503, quantity 1 and no total price
+    Then the response status code should be 503
+
@@ -0,0 +1,25 @@
+package com.microservices.product.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Stock Threshold Configuration
+ * Low-stock thresholds used to derive the persisted stock status
+ * - product.stock.low-stock-threshold: default for all categories
+ * - product.stock.low-stock-thresholds.[Category]: per-category override
+ */
+@Configuration
+@ConfigurationProperties(prefix = "product.stock")
+@Data
+public class StockThresholdProperties {
+    
+    private int lowStockThreshold = 10;
+    
+    private Map<String, Integer> lowStockThresholds = new HashMap<>();
+}
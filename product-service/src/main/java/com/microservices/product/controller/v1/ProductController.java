@@ -2,7 +2,9 @@ package com.microservices.product.controller.v1;
 
 import java.util.List;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.microservices.product.dto.v1.ProductRequest;
 import com.microservices.product.dto.v1.ProductResponse;
@@ -39,18 +42,58 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Product API v1", description = "Product management endpoints - Production version")
 public class ProductController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    
     private final ProductService productService;
     
-    @GetMapping
-    @Operation(summary = "Get all products", description = "Retrieve list of all products")
+    @GetMapping(params = {"!page", "!size", "!cursor"})
+    @Operation(summary = "Get all products", 
+               description = "Retrieve all products ordered by ID, streamed as one JSON array")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        log.info("GET /api/v1/products - Fetching all products");
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> getAllProducts() {
+        log.info("GET /api/v1/products - Streaming all products");
+        StreamingResponseBody body = productService::streamAllProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+    
+    @GetMapping
+    @Operation(summary = "Get a page of products", 
+               description = "Retrieve one page of products ordered by ID, by page number or by cursor. " +
+                           "X-Next-Cursor holds the cursor for the next page when there is one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+            @ApiResponse(responseCode = "400", description = "Invalid paging parameters")
+    })
+    public ResponseEntity<List<ProductResponse>> getProductsPage(
+            @Parameter(description = "Page number (0-based)", example = "0")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size", example = "20")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Return products with an ID greater than this cursor", example = "100")
+            @RequestParam(required = false) Long cursor) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        Slice<ProductResponse> products;
+        if (cursor != null) {
+            log.info("GET /api/v1/products?cursor={}&size={} - Fetching products", cursor, pageSize);
+            products = productService.getProductsAfter(cursor, pageSize);
+        } else {
+            int pageNumber = page != null ? page : 0;
+            log.info("GET /api/v1/products?page={}&size={} - Fetching products", pageNumber, pageSize);
+            products = productService.getProductsPage(pageNumber, pageSize);
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (products.hasNext()) {
+            List<ProductResponse> content = products.getContent();
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(content.get(content.size() - 1).getId()));
+        }
+        return response.body(products.getContent());
     }
     
     @GetMapping("/{id}")
@@ -3,6 +3,7 @@ package com.microservices.product.controller.v2;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,7 +12,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.microservices.product.dto.v2.BulkProductRequest;
 import com.microservices.product.dto.v2.PagedResponse;
@@ -20,6 +23,7 @@ import com.microservices.product.dto.v2.ProductRequest;
 import com.microservices.product.dto.v2.ProductResponse;
 import com.microservices.product.dto.v2.ProductStatsResponse;
 import com.microservices.product.service.v2.ProductService;
+import com.microservices.product.service.v2.StockStatusStream;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -45,6 +49,7 @@ import lombok.extern.slf4j.Slf4j;
  * - SKU-based lookup
  * - Category management
  * - Soft delete support
+ * - Stock status event stream (SSE)
  */
 @RestController("productControllerV2")
 @RequestMapping("/api/v2/products")
@@ -54,6 +59,7 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductController {
     
     private final ProductService productService;
+    private final StockStatusStream stockStatusStream;
     
     /**
      * Get all products with pagination and filtering
@@ -116,6 +122,26 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
     
+    /**
+     * Get several products by ID in one call
+     */
+    @GetMapping("/batch")
+    @Operation(
+        summary = "Get products by IDs",
+        description = "Retrieve up to 500 products in one call, in the requested order. Unknown IDs are omitted."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Too many or missing IDs")
+    })
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(
+            @Parameter(description = "Product IDs", example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        log.info("GET /api/v2/products/batch - Fetching {} products", ids.size());
+        List<ProductResponse> products = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(products);
+    }
+    
     /**
      * Get product by SKU
      */
@@ -356,6 +382,25 @@ public class ProductController {
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * Stream stock status transitions
+     */
+    @GetMapping(value = "/stock-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream stock status changes", 
+        description = "Server-Sent Events stream of IN_STOCK / LOW_STOCK / OUT_OF_STOCK transitions. "
+            + "Slow consumers receive only the latest pending status per product."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened")
+    })
+    public SseEmitter streamStockEvents(
+            @Parameter(description = "Only send transitions into or out of these statuses", example = "LOW_STOCK,OUT_OF_STOCK")
+            @RequestParam(required = false) List<String> statuses) {
+        log.info("GET /api/v2/products/stock-events - Subscribing to stock status changes (statuses: {})", statuses);
+        return stockStatusStream.subscribe(statuses);
+    }
+    
     /**
      * Generate random SKU
      */
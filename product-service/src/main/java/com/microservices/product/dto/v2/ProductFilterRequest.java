@@ -39,6 +39,10 @@ public class ProductFilterRequest {
     @Schema(description = "Filter by stock availability", example = "true")
     private Boolean inStock; // true = stock > 0, false = stock = 0
     
+    @Schema(description = "Filter by stock status", example = "LOW_STOCK",
+            allowableValues = {"IN_STOCK", "LOW_STOCK", "OUT_OF_STOCK"})
+    private String stockStatus;
+    
     @Builder.Default
     @Schema(description = "Filter active products only", example = "true", defaultValue = "true")
     private Boolean activeOnly = true; // Default: show only active products
@@ -55,7 +59,7 @@ public class ProductFilterRequest {
     private Integer size = 10;
     
     @Builder.Default
-    @Schema(description = "Sort field", example = "name", 
+    @Schema(description = "Sort field (index-backed fields only, others are rejected)", example = "name", 
             allowableValues = {"name", "price", "stock", "category", "createdAt", "updatedAt"})
     private String sortBy = "name";
     
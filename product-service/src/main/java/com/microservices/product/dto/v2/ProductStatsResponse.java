@@ -52,6 +52,6 @@ public class ProductStatsResponse {
     @Schema(description = "Number of products out of stock", example = "12")
     private Long outOfStockCount;
     
-    @Schema(description = "Number of products with low stock (<10 units)", example = "25")
+    @Schema(description = "Number of products with low stock (below their category threshold)", example = "25")
     private Long lowStockCount;
 }
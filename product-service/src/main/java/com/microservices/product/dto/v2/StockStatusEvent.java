@@ -0,0 +1,46 @@
+package com.microservices.product.dto.v2;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock Status Event DTO (v2)
+ * Pushed over Server-Sent Events whenever a product moves between
+ * IN_STOCK, LOW_STOCK and OUT_OF_STOCK
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Stock status transition of a single product")
+public class StockStatusEvent {
+    
+    @Schema(description = "Product ID", example = "1")
+    private Long productId;
+    
+    @Schema(description = "Stock Keeping Unit", example = "LAP-GAME-001")
+    private String sku;
+    
+    @Schema(description = "Product name", example = "Laptop Pro 15 Gaming Edition")
+    private String name;
+    
+    @Schema(description = "Product category", example = "Electronics")
+    private String category;
+    
+    @Schema(description = "Stock status before the change (null for new products)", example = "IN_STOCK")
+    private String previousStatus;
+    
+    @Schema(description = "Stock status after the change", example = "LOW_STOCK")
+    private String currentStatus;
+    
+    @Schema(description = "Stock quantity after the change", example = "4")
+    private Integer stock;
+    
+    @Schema(description = "When the change happened")
+    private LocalDateTime occurredAt;
+}
@@ -5,6 +5,8 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -22,12 +24,24 @@ import lombok.NoArgsConstructor;
  * Supports both v1 (basic) and v2 (enhanced) API operations
  * - v1 uses: id, name, description, price, stock, createdAt, updatedAt
  * - v2 adds: category, sku, tags, active, version for advanced features
+ * - stockStatus is persisted (and indexed) so status filters and counts don't scan the table
+ * - Sortable fields are backed by composite indexes for top-N page queries
  */
 @Entity
 @Table(name = "products", indexes = {
     @Index(name = "idx_sku", columnList = "sku"),
     @Index(name = "idx_category", columnList = "category"),
-    @Index(name = "idx_active", columnList = "active")
+    @Index(name = "idx_active", columnList = "active"),
+    @Index(name = "idx_stock_status", columnList = "stock_status, active"),
+    // Sort indexes (see ProductSortField): filter column, sort column, id
+    @Index(name = "idx_active_name_id", columnList = "active, name, id"),
+    @Index(name = "idx_active_price_id", columnList = "active, price, id"),
+    @Index(name = "idx_active_stock_id", columnList = "active, stock, id"),
+    @Index(name = "idx_active_category_id", columnList = "active, category, id"),
+    @Index(name = "idx_active_created_id", columnList = "active, created_at, id"),
+    @Index(name = "idx_active_updated_id", columnList = "active, updated_at, id"),
+    @Index(name = "idx_category_active_name_id", columnList = "category, active, name, id"),
+    @Index(name = "idx_category_active_price_id", columnList = "category, active, price, id")
 })
 @Data
 @NoArgsConstructor
@@ -50,6 +64,10 @@ public class Product {
     @Column(nullable = false)
     private Integer stock;
     
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private StockStatus stockStatus; // Derived from stock and category threshold, maintained on every stock change
+    
     // v2 Enhanced fields
     @Column(unique = true, length = 50)
     private String sku; // Stock Keeping Unit - unique product identifier
@@ -0,0 +1,27 @@
+package com.microservices.product.model;
+
+/**
+ * Stock Status
+ * Availability bucket derived from a product's stock quantity
+ * - OUT_OF_STOCK: no units left
+ * - LOW_STOCK: below the low-stock threshold of the product's category
+ * - IN_STOCK: everything else
+ */
+public enum StockStatus {
+    IN_STOCK,
+    LOW_STOCK,
+    OUT_OF_STOCK;
+    
+    /**
+     * Derive the stock status for a given quantity and low-stock threshold
+     */
+    public static StockStatus forStock(Integer stock, int lowStockThreshold) {
+        if (stock == null || stock <= 0) {
+            return OUT_OF_STOCK;
+        } else if (stock < lowStockThreshold) {
+            return LOW_STOCK;
+        } else {
+            return IN_STOCK;
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.microservices.product.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.microservices.product.dto.v1.ProductResponse;
 import com.microservices.product.model.Product;
+import com.microservices.product.model.StockStatus;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Product Repository (Enhanced for v1 and v2)
@@ -32,6 +42,22 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.stock < :threshold")
     List<Product> findLowStockProducts(Integer threshold);
     
+    // v1 listing: offset pages and keyset (id cursor) pages, both in primary key order
+    Slice<Product> findAllBy(Pageable pageable);
+    
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    // v1 unpaged listing: DTO projection read through a forward-only cursor, so rows are
+    // never attached to the persistence context; must be consumed inside a transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.microservices.product.dto.v1.ProductResponse(" +
+           "p.id, p.name, p.description, p.price, p.stock, p.createdAt, p.updatedAt) " +
+           "FROM Product p ORDER BY p.id")
+    Stream<ProductResponse> streamAllAsResponses();
+    
     // v2 Enhanced queries
     
     // Find by SKU (unique identifier)
@@ -95,15 +121,46 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT SUM(p.stock) FROM Product p WHERE p.active = true")
     Long findTotalStock();
     
-    // Out of stock count
-    @Query("SELECT COUNT(p) FROM Product p WHERE p.stock = 0 AND p.active = true")
-    Long countOutOfStock();
-    
-    // Low stock count
-    @Query("SELECT COUNT(p) FROM Product p WHERE p.stock > 0 AND p.stock < 10 AND p.active = true")
-    Long countLowStock();
+    // Count by persisted stock status (OUT_OF_STOCK / LOW_STOCK counts use idx_stock_status)
+    long countByStockStatusAndActive(StockStatus stockStatus, Boolean active);
     
     // Count distinct categories
     @Query("SELECT COUNT(DISTINCT p.category) FROM Product p WHERE p.active = true")
     Long countDistinctCategories();
+    
+    // Stock status maintenance (used when low-stock thresholds change)
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockStatus = :status " +
+           "WHERE p.stock >= :minStock AND p.stock < :maxStock " +
+           "AND (p.stockStatus IS NULL OR p.stockStatus <> :status)")
+    int updateStockStatus(
+        @Param("status") StockStatus status,
+        @Param("minStock") Integer minStock,
+        @Param("maxStock") Integer maxStock
+    );
+    
+    // As updateStockStatus, skipping categories (trimmed, lower-case) that have their own threshold
+    @Modifying
+    @Query("UPDATE Product p SET p.stockStatus = :status " +
+           "WHERE p.stock >= :minStock AND p.stock < :maxStock " +
+           "AND (p.category IS NULL OR LOWER(TRIM(p.category)) NOT IN :excludedCategories) " +
+           "AND (p.stockStatus IS NULL OR p.stockStatus <> :status)")
+    int updateStockStatusExcludingCategories(
+        @Param("status") StockStatus status,
+        @Param("minStock") Integer minStock,
+        @Param("maxStock") Integer maxStock,
+        @Param("excludedCategories") Collection<String> excludedCategories
+    );
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockStatus = :status " +
+           "WHERE p.stock >= :minStock AND p.stock < :maxStock AND LOWER(TRIM(p.category)) = :category " +
+           "AND (p.stockStatus IS NULL OR p.stockStatus <> :status)")
+    int updateStockStatusForCategory(
+        @Param("status") StockStatus status,
+        @Param("minStock") Integer minStock,
+        @Param("maxStock") Integer maxStock,
+        @Param("category") String category
+    );
 }
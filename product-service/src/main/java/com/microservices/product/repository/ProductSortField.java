@@ -0,0 +1,51 @@
+package com.microservices.product.repository;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Product Sort Fields
+ * Whitelist of sortable product properties. Every field is backed by a composite
+ * index on (active, field, id) - see Product - so ORDER BY ... LIMIT is served as an
+ * index range scan instead of sorting the whole filtered set. The id tie-breaker
+ * keeps pages stable and matches the index order.
+ */
+public enum ProductSortField {
+    NAME("name"),
+    PRICE("price"),
+    STOCK("stock"),
+    CATEGORY("category"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt");
+    
+    private final String property;
+    
+    ProductSortField(String property) {
+        this.property = property;
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+    
+    /**
+     * Sort by this field with id as tie-breaker
+     */
+    public Sort toSort(Sort.Direction direction) {
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+    
+    /**
+     * Resolve a client-supplied sort property; unknown properties are rejected
+     */
+    public static ProductSortField fromProperty(String property) {
+        return Arrays.stream(values())
+            .filter(field -> field.property.equalsIgnoreCase(property.trim()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported sort field: " + property
+                + " (allowed: " + Arrays.stream(values()).map(ProductSortField::getProperty)
+                    .collect(Collectors.joining(", ")) + ")"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.microservices.product.service;
+
+import java.util.List;
+
+/**
+ * Published by the v1 and v2 services on every product write.
+ * Listeners see it after the writing transaction commits.
+ */
+public record ProductCatalogChangedEvent(List<Long> productIds) {
+
+    public static ProductCatalogChangedEvent of(Long productId) {
+        return new ProductCatalogChangedEvent(List.of(productId));
+    }
+}
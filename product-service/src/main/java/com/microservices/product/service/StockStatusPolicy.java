@@ -0,0 +1,143 @@
+package com.microservices.product.service;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.microservices.product.config.StockThresholdProperties;
+import com.microservices.product.dto.v2.StockStatusEvent;
+import com.microservices.product.model.Product;
+import com.microservices.product.model.StockStatus;
+import com.microservices.product.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stock Status Policy
+ * Derives and maintains the persisted stock status of products
+ * - Applied by the v1 and v2 services on every stock change
+ * - Publishes the stock status transition events of both versions
+ * - Re-applied to stored rows at startup so threshold changes take effect
+ */
+@Component
+@Slf4j
+public class StockStatusPolicy {
+    
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultThreshold;
+    private final Map<String, Integer> categoryThresholds;
+    
+    public StockStatusPolicy(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                             StockThresholdProperties properties) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.defaultThreshold = properties.getLowStockThreshold();
+        // Category names are matched case-insensitively
+        this.categoryThresholds = properties.getLowStockThresholds().entrySet().stream()
+            .collect(Collectors.toMap(entry -> normalize(entry.getKey()), Map.Entry::getValue));
+    }
+    
+    /**
+     * Low-stock threshold for a category (default when not configured)
+     */
+    public int lowStockThreshold(String category) {
+        if (category == null) {
+            return defaultThreshold;
+        }
+        return categoryThresholds.getOrDefault(normalize(category), defaultThreshold);
+    }
+    
+    /**
+     * Stock status for a quantity within a category
+     */
+    public StockStatus statusFor(Integer stock, String category) {
+        return StockStatus.forStock(stock, lowStockThreshold(category));
+    }
+    
+    /**
+     * Recalculate and store the stock status on a product; returns the new status
+     */
+    public StockStatus apply(Product product) {
+        StockStatus status = statusFor(product.getStock(), product.getCategory());
+        product.setStockStatus(status);
+        return status;
+    }
+    
+    /**
+     * Stored stock status, derived on the fly for rows written before the column existed
+     */
+    public StockStatus statusOf(Product product) {
+        return product.getStockStatus() != null
+            ? product.getStockStatus()
+            : statusFor(product.getStock(), product.getCategory());
+    }
+    
+    /**
+     * Publish a stock status transition; delivered to stream subscribers after commit.
+     * Take previousStatus with statusOf before changing the product (null for a new one).
+     */
+    public void publishChange(Product product, StockStatus previousStatus) {
+        StockStatus currentStatus = statusOf(product);
+        if (currentStatus == previousStatus) {
+            return;
+        }
+        eventPublisher.publishEvent(StockStatusEvent.builder()
+            .productId(product.getId())
+            .sku(product.getSku())
+            .name(product.getName())
+            .category(product.getCategory())
+            .previousStatus(previousStatus != null ? previousStatus.name() : null)
+            .currentStatus(currentStatus.name())
+            .stock(product.getStock())
+            .occurredAt(LocalDateTime.now())
+            .build());
+    }
+    
+    /**
+     * Bring stored stock statuses in line with the configured thresholds.
+     * Only rows whose status is actually wrong are rewritten.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void refreshStoredStatuses() {
+        int updated = refreshRange(null, defaultThreshold);
+        for (Map.Entry<String, Integer> entry : categoryThresholds.entrySet()) {
+            updated += refreshRange(entry.getKey(), entry.getValue());
+        }
+        log.info("Stock status refresh complete: {} products updated", updated);
+    }
+    
+    // Helper methods
+    
+    private int refreshRange(String category, int threshold) {
+        return refresh(category, StockStatus.OUT_OF_STOCK, Integer.MIN_VALUE, 1)
+            + refresh(category, StockStatus.LOW_STOCK, 1, threshold)
+            + refresh(category, StockStatus.IN_STOCK, threshold, Integer.MAX_VALUE);
+    }
+    
+    private int refresh(String category, StockStatus status, int minStock, int maxStock) {
+        if (minStock >= maxStock) {
+            return 0;
+        }
+        if (category != null) {
+            return productRepository.updateStockStatusForCategory(status, minStock, maxStock, category);
+        }
+        // The default threshold must not touch categories refreshed with their own threshold
+        return categoryThresholds.isEmpty()
+            ? productRepository.updateStockStatus(status, minStock, maxStock)
+            : productRepository.updateStockStatusExcludingCategories(status, minStock, maxStock,
+                categoryThresholds.keySet());
+    }
+    
+    private static String normalize(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,16 +1,30 @@
 package com.microservices.product.service.v1;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservices.product.dto.v1.ProductRequest;
 import com.microservices.product.dto.v1.ProductResponse;
 import com.microservices.product.exception.ProductNotFoundException;
 import com.microservices.product.model.Product;
+import com.microservices.product.model.StockStatus;
 import com.microservices.product.repository.ProductRepository;
+import com.microservices.product.service.ProductCatalogChangedEvent;
+import com.microservices.product.service.StockStatusPolicy;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Product Service (v1)
  * Business logic for product operations
+ * - Listing is either paged (offset or id cursor) or streamed as one JSON array
  */
 @Service("productServiceV1")
 @RequiredArgsConstructor
@@ -25,14 +40,57 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductService {
     
     private final ProductRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockStatusPolicy stockStatusPolicy;
+    private final ObjectMapper objectMapper;
     
+    @Value("${product.v1.max-page-size:500}")
+    private int maxPageSize;
+    
+    /**
+     * Write every product as a single JSON array without materializing the list;
+     * rows are read through a database cursor and written one at a time
+     */
+    @Transactional(readOnly = true)
+    public void streamAllProducts(OutputStream out) throws IOException {
+        log.debug("Streaming all products (v1)");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<ProductResponse> products = repository.streamAllAsResponses()) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (ProductResponse product : (Iterable<ProductResponse>) products::iterator) {
+                generator.writeObject(product);
+            }
+            generator.writeEndArray();
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public Slice<ProductResponse> getProductsPage(int page, int size) {
+        log.debug("Fetching products page {} of size {} (v1)", page, size);
+        if (page < 0) {
+            throw new IllegalArgumentException("Page number must be 0 or greater");
+        }
+        return repository.findAllBy(PageRequest.of(page, checkPageSize(size), Sort.by("id")))
+                .map(this::toResponse);
+    }
+    
+    /**
+     * Keyset page: products with an id greater than the cursor, in id order
+     */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        log.debug("Fetching all products (v1)");
-        return repository.findAll()
+    public Slice<ProductResponse> getProductsAfter(Long cursor, int size) {
+        log.debug("Fetching products after id {} with size {} (v1)", cursor, size);
+        int pageSize = checkPageSize(size);
+        // One extra row tells us whether another page exists without a count query
+        List<ProductResponse> products = repository
+                .findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageSize + 1))
                 .stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
+        boolean hasNext = products.size() > pageSize;
+        return new SliceImpl<>(hasNext ? products.subList(0, pageSize) : products,
+                PageRequest.of(0, pageSize), hasNext);
     }
     
     @Transactional(readOnly = true)
@@ -48,6 +106,8 @@ public class ProductService {
         log.debug("Creating new product: {} (v1)", request.getName());
         Product product = toEntity(request);
         Product saved = repository.save(product);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(saved.getId()));
+        stockStatusPolicy.publishChange(saved, null);
         return toResponse(saved);
     }
     
@@ -56,13 +116,17 @@ public class ProductService {
         log.debug("Updating product id: {} (v1)", id);
         Product product = repository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        StockStatus previousStatus = stockStatusPolicy.statusOf(product);
         
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
         product.setStock(request.getStock());
+        stockStatusPolicy.apply(product);
         
         Product updated = repository.save(product);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(updated.getId()));
+        stockStatusPolicy.publishChange(updated, previousStatus);
         return toResponse(updated);
     }
     
@@ -73,6 +137,7 @@ public class ProductService {
             throw new ProductNotFoundException("Product not found with id: " + id);
         }
         repository.deleteById(id);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(id));
     }
     
     @Transactional(readOnly = true)
@@ -85,12 +150,20 @@ public class ProductService {
     }
     
     // Helper methods
+    private int checkPageSize(int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        return size;
+    }
+    
     private Product toEntity(ProductRequest request) {
         Product product = new Product();
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
         product.setStock(request.getStock());
+        stockStatusPolicy.apply(product);
         return product;
     }
     
@@ -0,0 +1,68 @@
+package com.microservices.product.service.v2;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, coalescing ring buffer for many producers and a single consumer
+ * - offer() never waits for the consumer: a newer value for a key that is still pending replaces
+ *   the older one, and a new key arriving while the ring is full is dropped
+ * - Producers take a short lock so a drop cannot undo a value another producer just coalesced
+ * - poll() returns the latest pending value per key, in first-offered order
+ */
+public class CoalescingRingBuffer<K, V> {
+    
+    private final ArrayBlockingQueue<K> ring;
+    private final Map<K, V> latest = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    public CoalescingRingBuffer(int capacity) {
+        this.ring = new ArrayBlockingQueue<>(capacity);
+    }
+    
+    /**
+     * Offer a value; returns false if it had to be dropped
+     */
+    public synchronized boolean offer(K key, V value) {
+        if (latest.put(key, value) != null) {
+            // Key already queued - the consumer will pick up this newer value
+            coalesced.incrementAndGet();
+            return true;
+        }
+        if (!ring.offer(key)) {
+            latest.remove(key);
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Take the next pending value, or null if the buffer is empty
+     */
+    public V poll() {
+        K key;
+        while ((key = ring.poll()) != null) {
+            V value = latest.remove(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+    
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+    
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+    
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,150 @@
+package com.microservices.product.service.v2;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.microservices.product.dto.v2.ProductFilterRequest;
+import com.microservices.product.dto.v2.ProductResponse;
+import com.microservices.product.service.ProductCatalogChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Product Search Cache (v2)
+ * Two bounded LRU caches guarded by a catalog epoch:
+ * - Search results: canonical filter -> page of product ids + total count
+ * - Products: id -> v2 response, used to rehydrate cached pages and id lookups
+ *
+ * Every committed product write bumps the epoch, which invalidates all cached
+ * pages at once, and evicts the written ids. Loaders capture the epoch before
+ * querying and only store their result if no write committed in the meantime,
+ * so a slow reader can never put stale data back into the cache.
+ */
+@Component
+@Slf4j
+public class ProductSearchCache {
+
+    private final AtomicLong catalogEpoch = new AtomicLong();
+    private final AtomicLong pageHits = new AtomicLong();
+    private final AtomicLong pageMisses = new AtomicLong();
+    private final boolean enabled;
+    private final Map<ProductFilterRequest, CachedPage> pages;
+    private final Map<Long, ProductResponse> products;
+
+    public ProductSearchCache(
+            @Value("${product.search-cache.enabled:true}") boolean enabled,
+            @Value("${product.search-cache.max-pages:10000}") int maxPages,
+            @Value("${product.search-cache.max-products:50000}") int maxProducts) {
+        this.enabled = enabled;
+        this.pages = new LruMap<>(maxPages);
+        this.products = new LruMap<>(maxProducts);
+    }
+
+    /**
+     * Current catalog epoch; capture before loading anything that will be cached
+     */
+    public long currentEpoch() {
+        return catalogEpoch.get();
+    }
+
+    /**
+     * Cached page for a canonical filter, or null on a miss
+     */
+    public CachedPage getPage(ProductFilterRequest canonicalFilter) {
+        if (!enabled) {
+            return null;
+        }
+        CachedPage page;
+        synchronized (pages) {
+            page = pages.get(canonicalFilter);
+        }
+        if (page != null && page.epoch() == catalogEpoch.get()) {
+            pageHits.incrementAndGet();
+            return page;
+        }
+        pageMisses.incrementAndGet();
+        return null;
+    }
+
+    public void putPage(ProductFilterRequest canonicalFilter, long epoch, List<Long> ids, long totalElements) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pages) {
+            if (epoch == catalogEpoch.get()) {
+                pages.put(canonicalFilter, new CachedPage(epoch, List.copyOf(ids), totalElements));
+            }
+        }
+    }
+
+    /**
+     * Cached products for the given ids; missing ids are simply absent from the result
+     */
+    public Map<Long, ProductResponse> getProducts(Collection<Long> ids) {
+        Map<Long, ProductResponse> found = new HashMap<>();
+        if (!enabled) {
+            return found;
+        }
+        synchronized (products) {
+            for (Long id : ids) {
+                ProductResponse product = products.get(id);
+                if (product != null) {
+                    found.put(id, product);
+                }
+            }
+        }
+        return found;
+    }
+
+    public void putProducts(Collection<ProductResponse> loaded, long epoch) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (products) {
+            if (epoch == catalogEpoch.get()) {
+                loaded.forEach(product -> products.put(product.getId(), product));
+            }
+        }
+    }
+
+    /**
+     * Invalidate after a product write has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        long epoch = catalogEpoch.incrementAndGet();
+        synchronized (products) {
+            event.productIds().forEach(products::remove);
+        }
+        log.debug("Catalog epoch {} after write to products {} (page hits: {}, misses: {})",
+            epoch, event.productIds(), pageHits.get(), pageMisses.get());
+    }
+
+    /**
+     * Page of product ids as of a catalog epoch
+     */
+    public record CachedPage(long epoch, List<Long> ids, long totalElements) {
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxEntries;
+
+        private LruMap(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
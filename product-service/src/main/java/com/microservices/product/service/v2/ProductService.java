@@ -5,11 +5,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -25,7 +28,11 @@ import com.microservices.product.dto.v2.ProductResponse;
 import com.microservices.product.dto.v2.ProductStatsResponse;
 import com.microservices.product.exception.ProductNotFoundException;
 import com.microservices.product.model.Product;
+import com.microservices.product.model.StockStatus;
 import com.microservices.product.repository.ProductRepository;
+import com.microservices.product.repository.ProductSortField;
+import com.microservices.product.service.ProductCatalogChangedEvent;
+import com.microservices.product.service.StockStatusPolicy;
 
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
@@ -35,9 +42,11 @@ import lombok.extern.slf4j.Slf4j;
  * Product Service (v2)
  * Enhanced business logic with advanced features:
  * - Pagination and filtering
+ * - Cached search results and product lookups (see ProductSearchCache)
  * - Bulk operations
  * - Statistics and analytics
  * - Stock status calculation
+ * - Stock status transition events
  * - Soft delete support
  */
 @Service("productServiceV2")
@@ -45,26 +54,38 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ProductService {
     
+    private static final int MAX_BATCH_IDS = 500;
+    
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockStatusPolicy stockStatusPolicy;
+    private final ProductSearchCache searchCache;
     
     /**
      * Get all products with pagination and filtering
+     * Equivalent filters share one cache entry: the filter is canonicalized first and
+     * the canonical form is used both as the cache key and to build the query.
      */
     @Transactional(readOnly = true)
     public PagedResponse<ProductResponse> getAllProducts(ProductFilterRequest filter) {
         log.info("Fetching products with filter: {}", filter);
         
-        // Build specification for dynamic filtering
-        Specification<Product> spec = buildSpecification(filter);
+        ProductFilterRequest canonical = canonicalize(filter);
+        
+        // Create pageable with sorting (whitelisted, index-backed fields only)
+        Sort sort = resolveSort(canonical.getSortBy(), canonical.getSortDirection());
+        Pageable pageable = PageRequest.of(canonical.getPage(), canonical.getSize(), sort);
+        
+        ProductSearchCache.CachedPage cached = searchCache.getPage(canonical);
+        if (cached != null) {
+            return toPagedResponse(new PageImpl<>(loadProducts(cached.ids()), pageable, cached.totalElements()));
+        }
         
-        // Create pageable with sorting
-        Sort sort = Sort.by(
-            filter.getSortDirection().equalsIgnoreCase("desc") 
-                ? Sort.Direction.DESC 
-                : Sort.Direction.ASC,
-            filter.getSortBy()
-        );
-        Pageable pageable = PageRequest.of(filter.getPage(), filter.getSize(), sort);
+        // Capture the epoch before querying so a concurrent write makes this result uncacheable
+        long epoch = searchCache.currentEpoch();
+        
+        // Build specification for dynamic filtering
+        Specification<Product> spec = buildSpecification(canonical);
         
         // Execute query
         Page<Product> productPage = productRepository.findAll(spec, pageable);
@@ -74,17 +95,12 @@ public class ProductService {
             .map(this::convertToResponse)
             .collect(Collectors.toList());
         
-        return PagedResponse.<ProductResponse>builder()
-            .content(responses)
-            .pageNumber(productPage.getNumber())
-            .pageSize(productPage.getSize())
-            .totalElements(productPage.getTotalElements())
-            .totalPages(productPage.getTotalPages())
-            .first(productPage.isFirst())
-            .last(productPage.isLast())
-            .hasNext(productPage.hasNext())
-            .hasPrevious(productPage.hasPrevious())
-            .build();
+        searchCache.putProducts(responses, epoch);
+        searchCache.putPage(canonical, epoch,
+            responses.stream().map(ProductResponse::getId).collect(Collectors.toList()),
+            productPage.getTotalElements());
+        
+        return toPagedResponse(new PageImpl<>(responses, pageable, productPage.getTotalElements()));
     }
     
     /**
@@ -93,9 +109,28 @@ public class ProductService {
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
         log.info("Fetching product by id: {}", id);
+        ProductResponse cached = searchCache.getProducts(List.of(id)).get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = searchCache.currentEpoch();
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
-        return convertToResponse(product);
+        ProductResponse response = convertToResponse(product);
+        searchCache.putProducts(List.of(response), epoch);
+        return response;
+    }
+    
+    /**
+     * Get several products by ID, in request order; unknown ids are omitted
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        log.info("Fetching {} products by id", ids.size());
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_IDS + " product ids are required");
+        }
+        return loadProducts(ids.stream().distinct().collect(Collectors.toList()));
     }
     
     /**
@@ -124,6 +159,8 @@ public class ProductService {
         Product product = convertToEntity(request);
         Product saved = productRepository.save(product);
         log.info("Product created with id: {}", saved.getId());
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(saved.getId()));
+        stockStatusPolicy.publishChange(saved, null);
         
         return convertToResponse(saved);
     }
@@ -144,6 +181,8 @@ public class ProductService {
             throw new IllegalArgumentException("Product with SKU " + request.getSku() + " already exists");
         }
         
+        StockStatus previousStatus = stockStatusPolicy.statusOf(existing);
+        
         // Update fields
         existing.setName(request.getName());
         existing.setDescription(request.getDescription());
@@ -152,9 +191,12 @@ public class ProductService {
         existing.setSku(request.getSku());
         existing.setCategory(request.getCategory());
         existing.setTags(convertTagsToString(request.getTags()));
+        stockStatusPolicy.apply(existing);
         
         Product updated = productRepository.save(existing);
         log.info("Product updated: {}", updated.getId());
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(updated.getId()));
+        stockStatusPolicy.publishChange(updated, previousStatus);
         
         return convertToResponse(updated);
     }
@@ -171,6 +213,7 @@ public class ProductService {
         
         product.setActive(false);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(id));
         
         log.info("Product soft deleted: {}", id);
     }
@@ -188,6 +231,9 @@ public class ProductService {
         
         List<Product> saved = productRepository.saveAll(products);
         log.info("Bulk created {} products", saved.size());
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(
+            saved.stream().map(Product::getId).collect(Collectors.toList())));
+        saved.forEach(product -> stockStatusPolicy.publishChange(product, null));
         
         return saved.stream()
             .map(this::convertToResponse)
@@ -233,8 +279,8 @@ public class ProductService {
         BigDecimal maxPrice = productRepository.findMaxPrice();
         BigDecimal minPrice = productRepository.findMinPrice();
         Long totalStock = productRepository.findTotalStock();
-        Long outOfStock = productRepository.countOutOfStock();
-        Long lowStock = productRepository.countLowStock();
+        long outOfStock = productRepository.countByStockStatusAndActive(StockStatus.OUT_OF_STOCK, true);
+        long lowStock = productRepository.countByStockStatusAndActive(StockStatus.LOW_STOCK, true);
         Long totalCategories = productRepository.countDistinctCategories();
         
         return ProductStatsResponse.builder()
@@ -254,10 +300,107 @@ public class ProductService {
     
     // Helper methods
     
+    /**
+     * Canonical form of a search filter: trimmed, blanks dropped, case-insensitive
+     * fields lower-cased, defaults filled in and the sort resolved against the whitelist.
+     * Category keeps its case because it is an exact (indexed) match.
+     */
+    private ProductFilterRequest canonicalize(ProductFilterRequest filter) {
+        ProductSortField sortField = filter.getSortBy() == null || filter.getSortBy().trim().isEmpty()
+            ? ProductSortField.NAME
+            : ProductSortField.fromProperty(filter.getSortBy());
+        String stockStatus = trimToNull(filter.getStockStatus());
+        return ProductFilterRequest.builder()
+            .name(lowerTrimToNull(filter.getName()))
+            .category(trimToNull(filter.getCategory()))
+            .minPrice(filter.getMinPrice() != null ? filter.getMinPrice().stripTrailingZeros() : null)
+            .maxPrice(filter.getMaxPrice() != null ? filter.getMaxPrice().stripTrailingZeros() : null)
+            .tag(lowerTrimToNull(filter.getTag()))
+            .inStock(filter.getInStock())
+            .stockStatus(stockStatus != null ? parseStockStatus(stockStatus).name() : null)
+            .activeOnly(Boolean.TRUE.equals(filter.getActiveOnly()))
+            .page(filter.getPage() != null ? filter.getPage() : 0)
+            .size(filter.getSize() != null ? filter.getSize() : 10)
+            .sortBy(sortField.getProperty())
+            .sortDirection("desc".equalsIgnoreCase(trimToNull(filter.getSortDirection())) ? "desc" : "asc")
+            .build();
+    }
+    
+    private String trimToNull(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+    
+    private String lowerTrimToNull(String value) {
+        String trimmed = trimToNull(value);
+        return trimmed != null ? trimmed.toLowerCase(Locale.ROOT) : null;
+    }
+    
+    /**
+     * Build the paged response envelope
+     */
+    private PagedResponse<ProductResponse> toPagedResponse(Page<ProductResponse> productPage) {
+        List<ProductResponse> responses = productPage.getContent();
+        return PagedResponse.<ProductResponse>builder()
+            .content(responses)
+            .pageNumber(productPage.getNumber())
+            .pageSize(productPage.getSize())
+            .totalElements(productPage.getTotalElements())
+            .totalPages(productPage.getTotalPages())
+            .first(productPage.isFirst())
+            .last(productPage.isLast())
+            .hasNext(productPage.hasNext())
+            .hasPrevious(productPage.hasPrevious())
+            .build();
+    }
+    
+    /**
+     * Load products by id in the given order, reading through the per-id cache
+     */
+    private List<ProductResponse> loadProducts(List<Long> ids) {
+        Map<Long, ProductResponse> found = searchCache.getProducts(ids);
+        List<Long> missing = ids.stream()
+            .filter(id -> !found.containsKey(id))
+            .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            long epoch = searchCache.currentEpoch();
+            List<ProductResponse> loaded = productRepository.findAllById(missing).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+            searchCache.putProducts(loaded, epoch);
+            loaded.forEach(product -> found.put(product.getId(), product));
+        }
+        // Keep the requested order; ids that no longer exist are skipped
+        return ids.stream()
+            .map(found::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Resolve the requested sort against the index-backed whitelist
+     */
+    private Sort resolveSort(String sortBy, String sortDirection) {
+        ProductSortField field = sortBy == null || sortBy.trim().isEmpty()
+            ? ProductSortField.NAME
+            : ProductSortField.fromProperty(sortBy);
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDirection)
+            ? Sort.Direction.DESC
+            : Sort.Direction.ASC;
+        return field.toSort(direction);
+    }
+    
     /**
      * Build JPA Specification for dynamic filtering
      */
     private Specification<Product> buildSpecification(ProductFilterRequest filter) {
+        // Parsed up front so an invalid value is reported as a bad request
+        StockStatus stockStatus = filter.getStockStatus() != null && !filter.getStockStatus().trim().isEmpty()
+            ? parseStockStatus(filter.getStockStatus())
+            : null;
+        
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
             
@@ -295,6 +438,11 @@ public class ProductService {
                 ));
             }
             
+            // Stock status filter (persisted, indexed column)
+            if (stockStatus != null) {
+                predicates.add(criteriaBuilder.equal(root.get("stockStatus"), stockStatus));
+            }
+            
             // Stock filter
             if (filter.getInStock() != null) {
                 if (filter.getInStock()) {
@@ -323,7 +471,7 @@ public class ProductService {
             .tags(convertTagsToList(product.getTags()))
             .active(product.getActive())
             .version(product.getVersion())
-            .stockStatus(calculateStockStatus(product.getStock()))
+            .stockStatus(stockStatusPolicy.statusOf(product).name())
             .createdAt(product.getCreatedAt())
             .updatedAt(product.getUpdatedAt())
             .build();
@@ -342,19 +490,19 @@ public class ProductService {
         product.setCategory(request.getCategory());
         product.setTags(convertTagsToString(request.getTags()));
         product.setActive(true);
+        stockStatusPolicy.apply(product);
         return product;
     }
     
     /**
-     * Calculate stock status based on quantity
+     * Parse a stock status filter value
      */
-    private String calculateStockStatus(Integer stock) {
-        if (stock == null || stock == 0) {
-            return "OUT_OF_STOCK";
-        } else if (stock < 10) {
-            return "LOW_STOCK";
-        } else {
-            return "IN_STOCK";
+    private StockStatus parseStockStatus(String value) {
+        try {
+            return StockStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid stock status: " + value
+                + " (expected one of " + Arrays.toString(StockStatus.values()) + ")");
         }
     }
     
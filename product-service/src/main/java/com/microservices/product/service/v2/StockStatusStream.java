@@ -0,0 +1,171 @@
+package com.microservices.product.service.v2;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservices.product.dto.v2.StockStatusEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stock Status Stream (v2)
+ * Fans out stock status transitions to Server-Sent Events subscribers
+ * - Events are received after the writing transaction commits
+ * - Each subscriber owns a bounded coalescing ring buffer, so a slow consumer only
+ *   sees the latest status per product and never blocks the write path
+ * - Buffers are drained on a small dispatch pool, one drain task per subscriber at a time
+ */
+@Service
+@Slf4j
+public class StockStatusStream {
+
+    private static final String EVENT_NAME = "stock-status";
+    private static final int MAX_EVENTS_PER_DRAIN = 64;
+
+    private final Collection<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService dispatcher;
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+
+    public StockStatusStream(
+            @Value("${product.stock-events.buffer-size:256}") int bufferSize,
+            @Value("${product.stock-events.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${product.stock-events.dispatch-threads:2}") int dispatchThreads) {
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-events-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Register a new subscriber, optionally limited to transitions into or out of a set of statuses
+     */
+    public SseEmitter subscribe(Collection<String> statuses) {
+        Set<String> filter = statuses == null
+            ? Collections.emptySet()
+            : statuses.stream()
+                .map(status -> status.trim().toUpperCase())
+                .filter(status -> !status.isEmpty())
+                .collect(Collectors.toSet());
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, filter, new CoalescingRingBuffer<>(bufferSize));
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        subscribers.add(subscriber);
+        log.info("Stock status subscriber connected (filter: {}, subscribers: {})", filter, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Receive a stock status transition once the writing transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockStatusChanged(StockStatusEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long id = sequence.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.buffer.offer(event.getProductId(), new Sequenced(id, event));
+                schedule(subscriber);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    // Helper methods
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Sequenced next;
+            int sent = 0;
+            while (sent++ < MAX_EVENTS_PER_DRAIN && (next = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(next.id()))
+                    .name(EVENT_NAME)
+                    .data(next.event(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping stock status subscriber: {}", e.getMessage());
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Leftovers from a capped drain, or an event that arrived before the drain flag was released
+        if (!subscriber.buffer.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.info("Stock status subscriber disconnected (coalesced: {}, dropped: {}, subscribers: {})",
+                subscriber.buffer.getCoalesced(), subscriber.buffer.getDropped(), subscribers.size());
+        }
+    }
+
+    private record Sequenced(long id, StockStatusEvent event) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> statuses;
+        private final CoalescingRingBuffer<Long, Sequenced> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<String> statuses, CoalescingRingBuffer<Long, Sequenced> buffer) {
+            this.emitter = emitter;
+            this.statuses = statuses;
+            this.buffer = buffer;
+        }
+
+        private boolean accepts(StockStatusEvent event) {
+            return statuses.isEmpty()
+                || statuses.contains(event.getCurrentStatus())
+                || statuses.contains(event.getPreviousStatus());
+        }
+    }
+}
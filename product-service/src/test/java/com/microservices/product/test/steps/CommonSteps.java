@@ -186,6 +186,14 @@ public class CommonSteps {
         log.info("Verified field '{}' matches pattern '{}'", fieldName, patternString);
     }
     
+    @Then("the response should have header {string}")
+    public void theResponseShouldHaveHeader(String headerName) {
+        Response response = testContext.getResponse();
+        assertThat(String.format("Header '%s' should exist", headerName), 
+                   response.getHeader(headerName), notNullValue());
+        log.info("Verified header '{}' exists", headerName);
+    }
+    
     @Then("the response time should be less than {int} ms")
     public void theResponseTimeShouldBeLessThanMs(int maxTimeMs) {
         Response response = testContext.getResponse();
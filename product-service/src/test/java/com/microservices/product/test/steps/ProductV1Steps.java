@@ -66,4 +66,30 @@ public class ProductV1Steps {
                    found, is(true));
         log.info("Verified product list contains product with name: {}", expectedName);
     }
+    
+    @Then("the response list should be ordered by ascending id")
+    public void theResponseListShouldBeOrderedByAscendingId() {
+        Response response = testContext.getResponse();
+        List<Long> ids = response.jsonPath().getList("id", Long.class);
+        
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(String.format("Product id at position %d should follow %d", i, ids.get(i - 1)),
+                       ids.get(i) > ids.get(i - 1), is(true));
+        }
+        log.info("Verified {} products are ordered by ascending id", ids.size());
+    }
+    
+    @Then("the response list should contain product {string} with price {double} after product {string}")
+    public void theResponseListShouldContainProductWithPriceAfter(String name, double price, String previousName) {
+        Response response = testContext.getResponse();
+        List<String> names = response.jsonPath().getList("name", String.class);
+        int index = names.indexOf(name);
+        
+        assertThat(String.format("Product list should contain product with name '%s'", name), index >= 0, is(true));
+        assertThat(String.format("Product '%s' should come after '%s'", name, previousName),
+                   names.indexOf(previousName), is(index - 1));
+        assertThat(String.format("Price of product '%s'", name),
+                   response.jsonPath().getDouble("[" + index + "].price"), equalTo(price));
+        log.info("Verified product '{}' with price {} follows '{}'", name, price, previousName);
+    }
 }
@@ -9,18 +9,29 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+import com.microservices.product.service.StockStatusPolicy;
+import com.microservices.product.service.v2.CoalescingRingBuffer;
+import com.microservices.product.service.v2.StockStatusStream;
 import com.microservices.product.test.context.TestContext;
 
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +44,12 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductV2Steps {
     
     private final TestContext testContext;
+    private final StockStatusStream stockStatusStream;
+    private final StockStatusPolicy stockStatusPolicy;
+    
+    // Data lines of the stock status stream opened by this scenario
+    private final BlockingQueue<String> stockEvents = new LinkedBlockingQueue<>();
+    private CoalescingRingBuffer<String, String> coalescingBuffer;
     
     @Given("I generate a random SKU")
     public void iGenerateARandomSKU() {
@@ -413,6 +430,143 @@ public class ProductV2Steps {
         log.info("Verified all products have stock > {}", minStock);
     }
     
+    @Then("all products in response should have stock status {string}")
+    public void allProductsInResponseShouldHaveStockStatus(String expectedStatus) {
+        Response response = testContext.getResponse();
+        List<Map<String, Object>> products = response.jsonPath().getList("content");
+        
+        for (Map<String, Object> product : products) {
+            assertThat(String.format("Product '%s' stock status", product.get("name")), 
+                       product.get("stockStatus"), equalTo(expectedStatus));
+        }
+        
+        log.info("Verified all products have stock status {}", expectedStatus);
+    }
+    
+    @Given("I create a V2 product named {string} with stock {int}")
+    public void iCreateAV2ProductNamedWithStock(String name, int stock) {
+        iCreateAV2ProductNamedInCategoryWithStock(name, "Test", stock);
+    }
+    
+    @Given("I create a V2 product named {string} in category {string} with stock {int}")
+    public void iCreateAV2ProductNamedInCategoryWithStock(String name, String category, int stock) {
+        String sku = generateRandomSKU();
+        
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(stockProductBody(name, category, stock, sku))
+                .when()
+                .post("/api/v2/products");
+        
+        assertThat("Product creation should succeed", response.getStatusCode(), equalTo(201));
+        
+        testContext.setData("productId", response.jsonPath().getLong("id"));
+        testContext.setData("productName", name);
+        testContext.setData("productCategory", category);
+        testContext.setData("productSku", sku);
+        log.info("Created V2 product '{}' with stock: {}", name, stock);
+    }
+    
+    @When("I change the stock of the V2 product to {int}")
+    public void iChangeTheStockOfTheV2ProductTo(int stock) {
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(stockProductBody((String) testContext.getData("productName"),
+                        (String) testContext.getData("productCategory"), stock,
+                        (String) testContext.getData("productSku")))
+                .when()
+                .put("/api/v2/products/" + testContext.getData("productId"));
+        
+        assertThat("Product update should succeed", response.getStatusCode(), equalTo(200));
+        log.info("Changed stock of product {} to {}", testContext.getData("productId"), stock);
+    }
+    
+    @Given("I subscribe to stock status changes for statuses {string}")
+    public void iSubscribeToStockStatusChangesForStatuses(String statuses) throws InterruptedException {
+        int subscribers = stockStatusStream.getSubscriberCount();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(testContext.getData("baseUrl") + "/api/v2/products/stock-events?statuses=" + statuses))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(response -> response.body()
+                        .filter(line -> line.startsWith("data:"))
+                        .forEach(line -> stockEvents.add(line.substring("data:".length()))));
+        
+        // The stream only sends once an event arrives, so wait for the server to register the subscriber
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stockStatusStream.getSubscriberCount() <= subscribers && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat("Stock status subscriber should connect", stockStatusStream.getSubscriberCount(),
+                greaterThan(subscribers));
+        log.info("Subscribed to stock status changes for statuses: {}", statuses);
+    }
+    
+    @Then("the next stock status event should move the product from {string} to {string}")
+    public void theNextStockStatusEventShouldMoveTheProduct(String previousStatus, String currentStatus)
+            throws InterruptedException {
+        String data = stockEvents.poll(5, TimeUnit.SECONDS);
+        assertThat("A stock status event should arrive", data, notNullValue());
+        
+        JsonPath event = JsonPath.from(data);
+        assertThat("Event product", event.getLong("productId"), equalTo(testContext.getData("productId")));
+        assertThat("Event previous status", event.getString("previousStatus"), equalTo(previousStatus));
+        assertThat("Event current status", event.getString("currentStatus"), equalTo(currentStatus));
+        log.info("Verified stock status event {} -> {}", previousStatus, currentStatus);
+    }
+    
+    @Given("a coalescing buffer of capacity {int}")
+    public void aCoalescingBufferOfCapacity(int capacity) {
+        coalescingBuffer = new CoalescingRingBuffer<>(capacity);
+    }
+    
+    @When("I offer to the coalescing buffer:")
+    public void iOfferToTheCoalescingBuffer(List<Map<String, String>> offers) {
+        for (Map<String, String> offer : offers) {
+            boolean accepted = coalescingBuffer.offer(offer.get("key"), offer.get("value"));
+            assertThat(String.format("Offer of %s=%s accepted", offer.get("key"), offer.get("value")),
+                    accepted, is(Boolean.parseBoolean(offer.get("accepted"))));
+        }
+    }
+    
+    @Then("polling the coalescing buffer should return {string}")
+    public void pollingTheCoalescingBufferShouldReturn(String expected) {
+        List<String> values = new ArrayList<>();
+        String value;
+        while ((value = coalescingBuffer.poll()) != null) {
+            values.add(value);
+        }
+        assertThat("Polled values", String.join(",", values), equalTo(expected));
+    }
+    
+    @Then("the coalescing buffer should have coalesced {int} and dropped {int} values")
+    public void theCoalescingBufferShouldHaveCoalescedAndDropped(int coalesced, int dropped) {
+        assertThat("Coalesced values", coalescingBuffer.getCoalesced(), equalTo((long) coalesced));
+        assertThat("Dropped values", coalescingBuffer.getDropped(), equalTo((long) dropped));
+    }
+    
+    @When("the stored stock statuses are refreshed")
+    public void theStoredStockStatusesAreRefreshed() {
+        stockStatusPolicy.refreshStoredStatuses();
+    }
+    
+    private String stockProductBody(String name, String category, int stock, String sku) {
+        return String.format("""
+            {
+                "name": "%s",
+                "description": "Product for stock status events",
+                "price": 19.99,
+                "stock": %d,
+                "sku": "%s",
+                "category": "%s",
+                "tags": ["test"],
+                "active": true
+            }
+            """, name, stock, sku, category);
+    }
+    
     // Helper method - generates SKU max 20 chars (PRD-XXXXX-XXXX format)
     private String generateRandomSKU() {
         // Use last 5 digits of timestamp + 4 digit random = PRD-12345-6789 (14 chars)
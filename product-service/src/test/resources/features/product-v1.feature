@@ -47,6 +47,38 @@ Feature: Product Service V1 API
     And the response should be a list
     And the response list should have at least 2 items
 
+  @Read @Streaming
+  Scenario: Get all products as one streamed list in id order
+    Given I create a product with name "Streamed Desk" and price 249.99
+    And I create a product with name "Streamed Chair" and price 89.50
+    And I create a product with name "Streamed Shelf" and price 59.00
+    When I send a GET request to "/api/v1/products"
+    Then the response status should be 200
+    And the response should be a list
+    And the response list should be ordered by ascending id
+    And the response list should contain product "Streamed Chair" with price 89.50 after product "Streamed Desk"
+    And the response list should contain product "Streamed Shelf" with price 59.00 after product "Streamed Chair"
+
+  @Read @Pagination
+  Scenario: Get products one page at a time
+    Given I create a product with name "Paged Keyboard" and price 49.99
+    And I create a product with name "Paged Mouse" and price 19.99
+    And I create a product with name "Paged Monitor" and price 199.99
+    When I send a GET request to "/api/v1/products?size=2"
+    Then the response status should be 200
+    And the response should be a list
+    And the response list should have 2 items
+    And the response should have header "X-Next-Cursor"
+    When I send a GET request to "/api/v1/products?cursor=0&size=2"
+    Then the response status should be 200
+    And the response list should have 2 items
+    And the response should have header "X-Next-Cursor"
+
+  @Validation @Negative @Pagination
+  Scenario: Get products with an invalid page size
+    When I send a GET request to "/api/v1/products?size=0"
+    Then the response status should be 400
+
   @Update
   Scenario: Update an existing product
     Given I create a product with name "USB Cable" and price 9.99
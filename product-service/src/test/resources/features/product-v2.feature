@@ -120,6 +120,15 @@ Feature: Product Service V2 API - Enhanced Features
       | field  | value |
       | active | false |
 
+  @Read @Batch
+  Scenario: Get several products by ID in one call
+    Given I create a V2 product with name "Batch Lookup Chair" and category "Furniture"
+    When I send a GET request to "/api/v2/products/batch?ids={productId},999999"
+    Then the response status should be 200
+    And the response should be a list
+    And the response list should have 1 items
+    And the response list should contain product with name "Batch Lookup Chair"
+
   @Categories
   Scenario: Get all product categories
     Given I create a V2 product with category "Electronics"
@@ -163,6 +172,99 @@ Feature: Product Service V2 API - Enhanced Features
     Then the response status should be 200
     And the response content should contain product with name "Stock Test Product"
 
+  @Search @StockStatus
+  Scenario: Filter products by persisted stock status
+    Given I create a V2 product with stock 3
+    And I create a V2 product with stock 50
+    When I send a POST request to "/api/v2/products/search" with body:
+      """
+      {
+        "stockStatus": "LOW_STOCK",
+        "size": 100
+      }
+      """
+    Then the response status should be 200
+    And the response content should contain product with name "Stock Test Product"
+    And all products in response should have stock status "LOW_STOCK"
+
+  @Search @Cache
+  Scenario: Cached search results are invalidated by a product write
+    Given I create a V2 product with name "Cached Desk Lamp" and category "Lighting"
+    When I send a POST request to "/api/v2/products/search" with body:
+      """
+      {
+        "name": "cached desk",
+        "category": "Lighting"
+      }
+      """
+    Then the response status should be 200
+    And the response content should contain product with name "Cached Desk Lamp"
+    When I send a POST request to "/api/v2/products/search" with body:
+      """
+      {
+        "name": "  CACHED DESK ",
+        "category": " Lighting",
+        "sortBy": "NAME"
+      }
+      """
+    Then the response status should be 200
+    And the response content should contain product with name "Cached Desk Lamp"
+    When I send a DELETE request to "/api/v2/products/{productId}"
+    And I send a POST request to "/api/v2/products/search" with body:
+      """
+      {
+        "name": "cached desk",
+        "category": "Lighting"
+      }
+      """
+    Then the response status should be 200
+    And the response content should not contain product with name "Cached Desk Lamp"
+
+  @StockEvents
+  Scenario: A filtered stock status stream only receives matching transitions
+    Given I create a V2 product named "Streamed Kettle" with stock 20
+    And I subscribe to stock status changes for statuses "OUT_OF_STOCK"
+    When I change the stock of the V2 product to 3
+    And I change the stock of the V2 product to 0
+    Then the next stock status event should move the product from "LOW_STOCK" to "OUT_OF_STOCK"
+    When I change the stock of the V2 product to 30
+    Then the next stock status event should move the product from "OUT_OF_STOCK" to "IN_STOCK"
+
+  @StockEvents
+  Scenario: A stock event buffer keeps the latest value per key and drops new keys when full
+    Given a coalescing buffer of capacity 2
+    When I offer to the coalescing buffer:
+      | key | value | accepted |
+      | 1   | 1-a   | true     |
+      | 2   | 2-a   | true     |
+      | 1   | 1-b   | true     |
+      | 3   | 3-a   | false    |
+      | 2   | 2-b   | true     |
+    Then polling the coalescing buffer should return "1-b,2-b"
+    And the coalescing buffer should have coalesced 2 and dropped 1 values
+    When I offer to the coalescing buffer:
+      | key | value | accepted |
+      | 3   | 3-b   | true     |
+    Then polling the coalescing buffer should return "3-b"
+
+  @StockStatus
+  Scenario: Refreshing stored stock statuses keeps per-category thresholds
+    Given I create a V2 product named "Euro Pallet" in category " pallets " with stock 20
+    When the stored stock statuses are refreshed
+    And I send a GET request to "/api/v2/products/{productId}"
+    Then the response status should be 200
+    And the response field "stockStatus" should match pattern "LOW_STOCK"
+
+  @Negative @StockStatus
+  Scenario: Filter products by an unknown stock status
+    When I send a POST request to "/api/v2/products/search" with body:
+      """
+      {
+        "stockStatus": "ALMOST_GONE"
+      }
+      """
+    Then the response status should be 400
+
   @Validation @Negative
   Scenario: Create product with duplicate SKU
     Given I create a V2 product with SKU "DUPLICATE-SKU-001" and category "Test"
@@ -196,6 +298,17 @@ Feature: Product Service V2 API - Enhanced Features
       """
     Then the response status should be 400
 
+  @Negative @Sorting
+  Scenario: Search with a sort field that is not index-backed
+    When I send a POST request to "/api/v2/products/search" with body:
+      """
+      {
+        "sortBy": "description",
+        "sortDirection": "asc"
+      }
+      """
+    Then the response status should be 400
+
   @Performance @Bulk
   Scenario: Bulk create large number of products
     Given I have a list of 50 products to create in bulk